@@ -14,6 +14,7 @@ import picocli.CommandLine;
 public class SpdxBuilder {
     public static void main(String... args) {
         new CommandLine(new Runner())
+                .setCaseInsensitiveEnumValuesAllowed(true)
                 .setExecutionExceptionHandler(SpdxBuilder::exceptionHandler)
                 .execute(args);
     }
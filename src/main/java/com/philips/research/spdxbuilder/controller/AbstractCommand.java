@@ -5,7 +5,12 @@
 
 package com.philips.research.spdxbuilder.controller;
 
+import com.philips.research.spdxbuilder.core.BomProcessor;
 import com.philips.research.spdxbuilder.core.ConversionService;
+import com.philips.research.spdxbuilder.core.domain.LicenseParser;
+import com.philips.research.spdxbuilder.persistence.cyclonedx.CycloneDxWriter;
+import com.philips.research.spdxbuilder.persistence.spdx.SpdxJsonWriter;
+import com.philips.research.spdxbuilder.persistence.spdx.SpdxWriter;
 import com.philips.research.spdxbuilder.persistence.tree.TreeWriter;
 import picocli.CommandLine.Option;
 import pl.tlinkowski.annotation.basic.NullOr;
@@ -13,7 +18,13 @@ import pl.tlinkowski.annotation.basic.NullOr;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 
 /**
  * Shared generic part of CLI commands.
@@ -27,10 +38,15 @@ public abstract class AbstractCommand implements Runnable {
     boolean showUsage;
 
     @SuppressWarnings("NotNullFieldNotInitialized")
-    @Option(names = {"--output", "-o"}, description = "Output SPDX tag-value file", paramLabel = "FILE", defaultValue = "bom.spdx")
-    File spdxFile;
+    @Option(names = {"--output", "-o"}, description = "Output SBOM file(s); the format follows from a .spdx, .spdx.json or .cdx.json extension", paramLabel = "FILE", defaultValue = "bom")
+    List<File> outputFiles;
 
-    @NullOr FileOutputStream spdxStream;
+    @Option(names = {"--output-format"}, description = "Output format for files without a known extension: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})", paramLabel = "FORMAT", defaultValue = "spdx")
+    OutputFormat outputFormat = OutputFormat.SPDX;
+
+    final List<File> files = new ArrayList<>();
+    final List<OutputFormat> formats = new ArrayList<>();
+    final List<OutputStream> streams = new ArrayList<>();
 
     @Option(names = {"--tree"}, description = "Print dependency tree")
     boolean printTree;
@@ -46,6 +62,26 @@ public abstract class AbstractCommand implements Runnable {
      */
     abstract protected ConversionService createService();
 
+    /**
+     * @return writer for the first output file
+     */
+    protected BomProcessor createWriter() {
+        return createWriter(0);
+    }
+
+    private BomProcessor createWriter(int index) {
+        final var stream = streams.get(index);
+        switch (formats.get(index)) {
+            case JSON:
+                return new SpdxJsonWriter(stream);
+            case CYCLONEDX:
+                return new CycloneDxWriter(stream);
+            case SPDX:
+            default:
+                return new SpdxWriter(stream);
+        }
+    }
+
     @Override
     public void run() {
         showBanner();
@@ -57,23 +93,24 @@ public abstract class AbstractCommand implements Runnable {
             System.exit(0);
         }
 
-        String filePathName = spdxFile.getPath() + (spdxFile.getName().contains(".") ? "" : ".spdx");
-
         try {
-            spdxFile = new File(filePathName);
-            System.out.println("Writing SBOM to '" + spdxFile.getName() + "'");
-            spdxStream = new FileOutputStream(spdxFile);
+            openOutputs();
 
             final var service = createService();
+            for (var i = 1; i < streams.size(); i++) {
+                service.addOutput(createWriter(i));
+            }
             service.read();
             if (printTree) {
                 service.apply(new TreeWriter());
             }
             service.convert(forceContinue);
+            showLicenseStatistics();
 
             if (uploadUrl != null) {
-                System.out.println("Uploading '" + spdxFile.getName() + "' to " + uploadUrl);
-                new UploadClient(uploadUrl).upload(spdxFile);
+                final var file = files.get(0);
+                System.out.println("Uploading '" + file.getName() + "' to " + uploadUrl);
+                new UploadClient(uploadUrl).upload(file);
             }
 
         } catch (Exception e) {
@@ -81,8 +118,10 @@ public abstract class AbstractCommand implements Runnable {
             System.exit(1);
         } finally {
             try {
-                if (spdxStream != null) {
-                    spdxStream.close();
+                if (!streams.isEmpty()) {
+                    for (var stream : streams) {
+                        stream.close();
+                    }
                     System.exit(0);
                 }
             } catch (IOException e) {
@@ -92,10 +131,51 @@ public abstract class AbstractCommand implements Runnable {
         }
     }
 
+    private void openOutputs() throws IOException {
+        for (var file : outputFiles) {
+            final var format = OutputFormat.of(file).orElse(outputFormat);
+            if (!file.getName().contains(".")) {
+                file = new File(file.getPath() + format.extension);
+            }
+            System.out.println("Writing SBOM to '" + file.getName() + "'");
+            files.add(file);
+            formats.add(format);
+            streams.add(new FileOutputStream(file));
+        }
+    }
+
+    private void showLicenseStatistics() {
+        final var hits = LicenseParser.getCacheHits();
+        final var total = hits + LicenseParser.getCacheMisses();
+        if (total > 0) {
+            System.out.printf("Parsed %d license expressions (%d%% from cache)%n", total, 100 * hits / total);
+        }
+    }
+
     private void showBanner() {
         System.out.println(" ___ ___ _____  __   ___      _ _    _         ");
         System.out.println("/ __| _ \\   \\ \\/ /__| _ )_  _(_) |__| |___ _ _ ");
         System.out.println("\\__ \\  _/ |) >  <___| _ \\ || | | / _` / -_) '_|");
         System.out.println("|___/_| |___/_/\\_\\  |___/\\_,_|_|_\\__,_\\___|_|");
     }
+
+    enum OutputFormat {
+        SPDX(".spdx"), JSON(".spdx.json"), CYCLONEDX(".cdx.json");
+
+        private final String extension;
+
+        OutputFormat(String extension) {
+            this.extension = extension;
+        }
+
+        /**
+         * @return the format indicated by the extension of the file name
+         */
+        static Optional<OutputFormat> of(File file) {
+            final var name = file.getName().toLowerCase(Locale.ROOT);
+            return Arrays.stream(values())
+                    .filter(format -> name.endsWith(format.extension))
+                    .findFirst();
+        }
+    }
 }
@@ -10,7 +10,6 @@ import com.philips.research.spdxbuilder.core.BomReader;
 import com.philips.research.spdxbuilder.core.ConversionService;
 import com.philips.research.spdxbuilder.core.domain.ConversionInteractor;
 import com.philips.research.spdxbuilder.persistence.blackduck.BlackDuckReader;
-import com.philips.research.spdxbuilder.persistence.spdx.SpdxWriter;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
@@ -39,10 +38,20 @@ public class BlackDuckCommand extends AbstractCommand {
             defaultValue = "${env:BLACKDUCK_API_TOKEN}", required = true)
     String token;
 
+    @Option(names = {"--max-requests"}, description = "Maximum number of concurrent requests to the Black Duck server",
+            paramLabel = "COUNT", defaultValue = "4")
+    int maxRequests;
+
+    @Option(names = {"--page-size"}, description = "Number of components retrieved per request to the Black Duck server",
+            paramLabel = "COUNT", defaultValue = "100")
+    int pageSize;
+
     @Override
     protected ConversionService createService() {
-        final BomReader reader = new BlackDuckReader(url, token, project, version, insecure);
-        final BomProcessor writer = new SpdxWriter(spdxStream);
+        final BomReader reader = new BlackDuckReader(url, token, project, version, insecure)
+                .setMaxRequests(maxRequests)
+                .setPageSize(pageSize);
+        final BomProcessor writer = createWriter();
 
         return new ConversionInteractor(reader, writer);
     }
@@ -11,7 +11,6 @@ import com.philips.research.spdxbuilder.core.ConversionService;
 import com.philips.research.spdxbuilder.core.domain.ConversionInteractor;
 import com.philips.research.spdxbuilder.persistence.license_scanner.LicenseKnowledgeBase;
 import com.philips.research.spdxbuilder.persistence.ort.OrtReader;
-import com.philips.research.spdxbuilder.persistence.spdx.SpdxWriter;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
@@ -21,13 +20,17 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.URI;
+import java.util.Comparator;
+import java.util.List;
 
 /**
  * CLI command to generate an SPDX file from an ORT Analyzer YAML.
  */
 @Command(name = "ort", description = "Converts the output of the OSS Review Toolkit Analyzer into a bill-of-materials.")
 public class OrtCommand extends AbstractCommand {
-    @Parameters(index = "0", description = "ORT Analyzer YAML file to read", paramLabel = "FILE", defaultValue = "analyzer-result.yml")
+    private static final List<String> EXTENSIONS = List.of(".yml", ".yaml", ".json", ".yml.gz", ".yaml.gz", ".json.gz");
+
+    @Parameters(index = "0", description = "ORT Analyzer YAML or JSON file to read (optionally gzip-compressed)", paramLabel = "FILE", defaultValue = "analyzer-result.yml")
     @SuppressWarnings("NotNullFieldNotInitialized")
     File ortFile;
 
@@ -40,8 +43,8 @@ public class OrtCommand extends AbstractCommand {
 
     @Override
     protected ConversionService createService() {
-        final OrtReader reader = new OrtReader(ortFile);
-        final BomProcessor writer = new SpdxWriter(spdxStream);
+        final OrtReader reader = new OrtReader(resolveOrtFile());
+        final BomProcessor writer = createWriter();
         ConversionService service = licenseScanner != null
                 ? new ConversionInteractor(reader, writer).setKnowledgeBase(new LicenseKnowledgeBase(licenseScanner))
                 : new ConversionInteractor(reader, writer);
@@ -53,6 +56,26 @@ public class OrtCommand extends AbstractCommand {
         return service;
     }
 
+    /**
+     * @return the indicated ORT file, or else an existing file with the same base name in another supported format
+     */
+    private File resolveOrtFile() {
+        if (ortFile.exists()) {
+            return ortFile;
+        }
+        final var name = ortFile.getName();
+        final var base = EXTENSIONS.stream()
+                .filter(name::endsWith)
+                .max(Comparator.comparingInt(String::length))
+                .map(ext -> name.substring(0, name.length() - ext.length()))
+                .orElse(name);
+        return EXTENSIONS.stream()
+                .map(ext -> new File(ortFile.getParentFile(), base + ext))
+                .filter(File::exists)
+                .findFirst()
+                .orElse(ortFile);
+    }
+
     private OrtConfiguration readConfiguration() {
         try (final var stream = new FileInputStream(configFile)) {
             return OrtConfiguration.parse(stream);
@@ -9,9 +9,9 @@ import com.philips.research.spdxbuilder.core.BomProcessor;
 import com.philips.research.spdxbuilder.core.BomReader;
 import com.philips.research.spdxbuilder.core.BusinessException;
 import com.philips.research.spdxbuilder.core.ConversionService;
+import com.philips.research.spdxbuilder.core.KnowledgeBase;
 import com.philips.research.spdxbuilder.core.domain.ConversionInteractor;
 import com.philips.research.spdxbuilder.persistence.bom_base.BomBaseKnowledgeBase;
-import com.philips.research.spdxbuilder.persistence.spdx.SpdxWriter;
 import com.philips.research.spdxbuilder.persistence.tree.TreeFormats;
 import com.philips.research.spdxbuilder.persistence.tree.TreeReader;
 import picocli.CommandLine;
@@ -22,6 +22,11 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * CLI command to export the SBOM from a textual tree representation to an SPDX file.
@@ -31,6 +36,9 @@ public class TreeCommand extends AbstractCommand {
     @CommandLine.Option(names = {"--format", "-f"}, description = "Format of the tree to parse")
     @NullOr String format;
 
+    @CommandLine.Parameters(description = "Tree file(s) or directories of tree files to parse (defaults to standard input)", paramLabel = "FILE", arity = "0..*")
+    List<File> inputs = new ArrayList<>();
+
     @CommandLine.Option(names = {"--custom"}, description = "Custom formats extension file")
     @NullOr File formatExtension;
 
@@ -41,6 +49,21 @@ public class TreeCommand extends AbstractCommand {
     @CommandLine.Option(names = {"--kb", "--bombase"}, description = "Add package metadata from BOM-base knowledge base", paramLabel = "SERVER_URL")
     @NullOr URI bomBase;
 
+    @CommandLine.Option(names = {"--kb-parallelism"}, description = "Maximum number of concurrent knowledge base lookups", paramLabel = "COUNT", defaultValue = "1")
+    int kbParallelism;
+
+    @CommandLine.Option(names = {"--kb-batch-size"}, description = "Maximum number of packages per knowledge base lookup request (if supported by the server)", paramLabel = "COUNT", defaultValue = "1")
+    int kbBatchSize;
+
+    @CommandLine.Option(names = {"--kb-cache"}, description = "Directory to cache knowledge base metadata across runs", paramLabel = "DIR")
+    @NullOr Path kbCache;
+
+    @CommandLine.Option(names = {"--kb-cache-ttl"}, description = "Hours before cached metadata expires", paramLabel = "HOURS", defaultValue = "24")
+    int kbCacheTtl;
+
+    @CommandLine.Option(names = {"--kb-cache-size"}, description = "Maximum number of packages in the metadata cache", paramLabel = "COUNT", defaultValue = "100000")
+    int kbCacheSize;
+
     @CommandLine.Option(names = {"--release"}, description = "Root packages expose their package URL", defaultValue = "false")
     boolean isRelease;
 
@@ -57,12 +80,14 @@ public class TreeCommand extends AbstractCommand {
     @Override
     protected ConversionService createService() {
         final var config = readConfiguration();
-        final BomReader reader = new TreeReader(System.in, format, formatExtension, config.getInternalGlobs())
+        final BomReader reader = (inputs.isEmpty()
+                ? new TreeReader(System.in, format, formatExtension, config.getInternalGlobs())
+                : new TreeReader(inputFiles(), format, formatExtension, config.getInternalGlobs()))
                 .setRelease(isRelease);
-        final BomProcessor writer = new SpdxWriter(spdxStream);
+        final BomProcessor writer = createWriter();
 
         final var service = bomBase != null
-                ? new ConversionInteractor(reader, writer).setKnowledgeBase(new BomBaseKnowledgeBase(bomBase))
+                ? new ConversionInteractor(reader, writer).setKnowledgeBase(createKnowledgeBase(bomBase))
                 : new ConversionInteractor(reader, writer);
 
         config.apply(service);
@@ -70,6 +95,38 @@ public class TreeCommand extends AbstractCommand {
         return service;
     }
 
+    /**
+     * @return the input files, replacing every directory by the (sorted) files it contains
+     */
+    private List<File> inputFiles() {
+        final var files = new ArrayList<File>();
+        for (var input : inputs) {
+            if (input.isDirectory()) {
+                final var children = input.listFiles(File::isFile);
+                if (children != null) {
+                    Arrays.sort(children);
+                    files.addAll(Arrays.asList(children));
+                }
+            } else if (input.isFile()) {
+                files.add(input);
+            } else {
+                throw new BusinessException("Tree file " + input + " does not exist");
+            }
+        }
+        if (files.isEmpty()) {
+            throw new BusinessException("No tree files found in " + inputs);
+        }
+        return files;
+    }
+
+    private KnowledgeBase createKnowledgeBase(URI uri) {
+        final var knowledgeBase = new BomBaseKnowledgeBase(uri).setBatchSize(kbBatchSize);
+        if (kbCache != null) {
+            knowledgeBase.setCache(kbCache, Duration.ofHours(kbCacheTtl), kbCacheSize);
+        }
+        return knowledgeBase.setParallelism(kbParallelism);
+    }
+
     private TreeConfiguration readConfiguration() {
         try (final var stream = new FileInputStream(configFile)) {
             return TreeConfiguration.parse(stream);
@@ -70,9 +70,16 @@ public interface ConversionService {
      */
     void apply(BomProcessor processor);
 
+    /**
+     * Adds an output that is written by the conversion, next to the output(s) that were already configured.
+     *
+     * @param processor writer of the additional output
+     */
+    void addOutput(BomProcessor processor);
+
     /**
      * Extends the bill-of-matrials with metadata from the knowledge base (if configured),
-     * and writes it as a document.
+     * and writes it to all configured outputs.
      *
      * @param continueWhenIncomplete writes the SBOM even if the conversion is incomplete
      */
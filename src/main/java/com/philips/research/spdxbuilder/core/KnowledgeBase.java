@@ -8,27 +8,106 @@ package com.philips.research.spdxbuilder.core;
 import com.philips.research.spdxbuilder.core.domain.BillOfMaterials;
 import com.philips.research.spdxbuilder.core.domain.Package;
 
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 public abstract class KnowledgeBase {
+    private int parallelism = 1;
+
+    /**
+     * Limits the number of packages that are enhanced concurrently.
+     *
+     * @param parallelism maximum number of concurrent lookups (1 for sequential)
+     */
+    public KnowledgeBase setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, but was " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
     /**
      * Enhances all packages of a bill-of-materials.
+     * Only the lookups run concurrently; the retrieved metadata is applied to the packages (and failures are
+     * reported) in the order of the packages, so custom license identifiers are assigned deterministically.
      *
      * @param bom bill-of-materials
      * @return true if no packages failed
      */
     public boolean enhance(BillOfMaterials bom) {
-        final var success = new AtomicBoolean(true);
-        bom.getPackages().stream()
+        final var packages = bom.getPackages().stream()
                 .filter(pkg -> !pkg.isInternal())
-                .forEach(pkg -> {
-                    final var found = enhance(pkg);
-                    if (!found) {
-                        System.err.println("WARNING: No metadata for " + pkg);
-                        success.set(false);
-                    }
-                });
-        return success.get();
+                .collect(Collectors.toList());
+        prepare(packages);
+
+        if (parallelism == 1 || packages.size() <= 1) {
+            var success = true;
+            for (var pkg : packages) {
+                success &= report(pkg, enhance(pkg));
+            }
+            return success;
+        }
+        return enhanceConcurrently(packages);
+    }
+
+    private boolean enhanceConcurrently(List<Package> packages) {
+        final var executor = Executors.newFixedThreadPool(Math.min(parallelism, packages.size()), runnable -> {
+            final var thread = new Thread(runnable, "knowledge-base");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final var results = submitAll(executor, packages);
+            var success = true;
+            for (var i = 0; i < packages.size(); i++) {
+                success &= report(packages.get(i), apply(resultOf(results.get(i))));
+            }
+            return success;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Future<Optional<Runnable>>> submitAll(ExecutorService executor, List<Package> packages) {
+        final var results = new ArrayList<Future<Optional<Runnable>>>(packages.size());
+        packages.forEach(pkg -> results.add(executor.submit(() -> lookup(pkg))));
+        return results;
+    }
+
+    private <T> T resultOf(Future<T> result) {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new BusinessException("Enhancement of metadata failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Enhancement of metadata was interrupted", e);
+        }
+    }
+
+    private boolean report(Package pkg, boolean found) {
+        if (!found) {
+            System.err.println("WARNING: No metadata for " + pkg);
+        }
+        return found;
+    }
+
+    /**
+     * Hook to prepare for enhancing the provided packages, e.g. by retrieving their metadata in bulk.
+     *
+     * @param packages the packages that are about to be enhanced
+     */
+    protected void prepare(List<Package> packages) {
     }
 
     /**
@@ -37,5 +116,21 @@ public abstract class KnowledgeBase {
      * @param pkg the package to enhance
      * @return true if for success, or false if enhancement failed
      */
-    public abstract boolean enhance(Package pkg);
+    public boolean enhance(Package pkg) {
+        return apply(lookup(pkg));
+    }
+
+    private boolean apply(@SuppressWarnings("OptionalUsedAsFieldOrParameterType") Optional<Runnable> update) {
+        update.ifPresent(Runnable::run);
+        return update.isPresent();
+    }
+
+    /**
+     * Retrieves the metadata of a single package, without modifying the package or registering any licenses.
+     * (Can be invoked concurrently for different packages if a parallelism above 1 is configured.)
+     *
+     * @param pkg the package to look up
+     * @return the update that applies the retrieved metadata to the package, or empty if the lookup failed
+     */
+    protected abstract Optional<Runnable> lookup(Package pkg);
 }
@@ -5,18 +5,26 @@
 
 package com.philips.research.spdxbuilder.core.domain;
 
+import com.github.packageurl.PackageURL;
 import pl.tlinkowski.annotation.basic.NullOr;
 
 import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Report on the composition of a product
  */
 public class BillOfMaterials {
     private final List<Package> packages = new ArrayList<>();
+    private final Map<PackageURL, List<Package>> purlIndex = new HashMap<>();
+    private final Map<List<String>, Package> coordinateIndex = new HashMap<>();
     private final Set<Relation> relations = new HashSet<>();
+    // Adjacency per package instance, because (anonymous) packages are not necessarily unique by value
+    private final Map<Package, List<Relation>> outgoing = new IdentityHashMap<>();
+    private final Map<Package, List<Relation>> incoming = new IdentityHashMap<>();
     private @NullOr String title;
     private @NullOr String comment;
     private @NullOr Party organization;
@@ -34,21 +42,100 @@ public class BillOfMaterials {
     }
 
     public List<Package> getPackages() {
-        return packages;
+        return Collections.unmodifiableList(packages);
     }
 
+    /**
+     * Adds a package, which is indexed by its package URL and by its namespace, name and version.
+     * (The package URL must therefore be set before the package is added.)
+     */
     public BillOfMaterials addPackage(Package pkg) {
         packages.add(pkg);
+        pkg.getPurl().ifPresent(purl -> purlIndex.computeIfAbsent(purl, x -> new ArrayList<>(1)).add(pkg));
+        coordinateIndex.putIfAbsent(coordinatesOf(pkg.getNamespace(), pkg.getName(), pkg.getVersion()), pkg);
         return this;
     }
 
+    /**
+     * Adds a package for the package URL, unless a package with this package URL already exists.
+     *
+     * @param purl    package URL of the package
+     * @param factory creates the package if it does not exist yet
+     * @return the existing or added package
+     */
+    public Package addPackageIfAbsent(PackageURL purl, Function<PackageURL, Package> factory) {
+        return getPackage(purl).orElseGet(() -> {
+            final var pkg = factory.apply(purl);
+            addPackage(pkg);
+            return pkg;
+        });
+    }
+
+    /**
+     * Adds a package for the namespace, name and version, unless a package with these coordinates already exists.
+     *
+     * @param factory creates the package if it does not exist yet
+     * @return the existing or added package
+     */
+    public Package addPackageIfAbsent(@NullOr String namespace, String name, String version, Supplier<Package> factory) {
+        return getPackage(namespace, name, version).orElseGet(() -> {
+            final var pkg = factory.get();
+            addPackage(pkg);
+            return pkg;
+        });
+    }
+
+    /**
+     * @return the (first) package added with the package URL
+     */
+    public Optional<Package> getPackage(PackageURL purl) {
+        final @NullOr List<Package> list = purlIndex.get(purl);
+        return (list != null) ? Optional.of(list.get(0)) : Optional.empty();
+    }
+
+    /**
+     * @return all packages added with the package URL, in the order they were added
+     */
+    public List<Package> getPackages(PackageURL purl) {
+        return Collections.unmodifiableList(purlIndex.getOrDefault(purl, List.of()));
+    }
+
+    /**
+     * @return the (first) package added with the namespace, name and version
+     */
+    public Optional<Package> getPackage(@NullOr String namespace, String name, String version) {
+        return Optional.ofNullable(coordinateIndex.get(coordinatesOf((namespace != null) ? namespace : "", name, version)));
+    }
+
+    private List<String> coordinatesOf(String namespace, String name, String version) {
+        return Arrays.asList(namespace, name, version);
+    }
+
     public BillOfMaterials addRelation(Package from, Package to, Relation.Type type) {
-        relations.add(new Relation(from, to, type));
+        final var relation = new Relation(from, to, type);
+        if (relations.add(relation)) {
+            outgoing.computeIfAbsent(from, x -> new ArrayList<>()).add(relation);
+            incoming.computeIfAbsent(to, x -> new ArrayList<>()).add(relation);
+        }
         return this;
     }
 
     public Collection<Relation> getRelations() {
-        return relations;
+        return Collections.unmodifiableSet(relations);
+    }
+
+    /**
+     * @return relations originating from the package, in the order they were added
+     */
+    public List<Relation> getRelationsFrom(Package pkg) {
+        return Collections.unmodifiableList(outgoing.getOrDefault(pkg, List.of()));
+    }
+
+    /**
+     * @return relations targeting the package, in the order they were added
+     */
+    public List<Relation> getRelationsTo(Package pkg) {
+        return Collections.unmodifiableList(incoming.getOrDefault(pkg, List.of()));
     }
 
     public String getTitle() {
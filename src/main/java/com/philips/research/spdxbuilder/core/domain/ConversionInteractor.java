@@ -10,15 +10,21 @@ import com.philips.research.spdxbuilder.core.*;
 import pl.tlinkowski.annotation.basic.NullOr;
 
 import java.net.URI;
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 
 /**
  * Implementation of conversion use cases.
+ * Multiple outputs are written concurrently from the same enhanced bill-of-materials, which is no longer
+ * modified once the writing has started.
  */
 public class ConversionInteractor implements ConversionService, AutoCloseable {
     private final BomReader reader;
-    private final BomProcessor writer;
+    private final List<BomProcessor> writers = new ArrayList<>();
     private final BillOfMaterials bom;
 
     private @NullOr KnowledgeBase knowledgeBase;
@@ -29,7 +35,7 @@ public class ConversionInteractor implements ConversionService, AutoCloseable {
 
     ConversionInteractor(BomReader reader, BomProcessor writer, BillOfMaterials bom) {
         this.reader = reader;
-        this.writer = writer;
+        this.writers.add(writer);
         this.bom = bom;
     }
 
@@ -81,6 +87,11 @@ public class ConversionInteractor implements ConversionService, AutoCloseable {
         processor.process(bom);
     }
 
+    @Override
+    public void addOutput(BomProcessor processor) {
+        writers.add(processor);
+    }
+
     @Override
     public void convert(boolean continueIfIncomplete) {
         if (knowledgeBase != null) {
@@ -90,20 +101,40 @@ public class ConversionInteractor implements ConversionService, AutoCloseable {
             }
         }
         //TODO Curate before writing
-        writer.process(bom);
+        write();
+        System.out.println("Total: " + bom.getPackages().size() + " packages and " + bom.getRelations().size() + " relations");
+    }
+
+    private void write() {
+        if (writers.size() == 1) {
+            writers.get(0).process(bom);
+            return;
+        }
+
+        final var executor = Executors.newFixedThreadPool(writers.size());
+        try {
+            final var futures = writers.stream()
+                    .map(writer -> CompletableFuture.runAsync(() -> writer.process(bom), executor))
+                    .toArray(CompletableFuture<?>[]::new);
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } finally {
+            executor.shutdown();
+        }
     }
 
     private void curate(PackageURL purl, Consumer<Package> curate) {
-        bom.getPackages().stream()
-                //FIXME Will never be equal!?
-                .filter(pkg -> Objects.equals(purl, pkg.getPurl()))
-                .forEach(curate);
+        bom.getPackages(purl).forEach(curate);
     }
 
     @Override
     public void close() throws Exception {
-        if (this.writer != null) {
-            this.writer.close();
+        for (var writer : writers) {
+            writer.close();
         }
     }
 }
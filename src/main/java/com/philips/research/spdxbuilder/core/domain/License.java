@@ -7,14 +7,31 @@ package com.philips.research.spdxbuilder.core.domain;
 
 import pl.tlinkowski.annotation.basic.NullOr;
 
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Locale;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * Immutable (combination of) license(s).
+ * The textual and case-insensitive canonical forms are computed once, so comparing and hashing are cheap.
+ */
 public abstract class License {
     @SuppressWarnings("StaticInitializerReferencesSubClass")
     public static final License NONE = new NoLicense();
 
+    private final String text;
+    private final String canonical;
+    private final int hash;
+
+    License(String text) {
+        this.text = text;
+        this.canonical = text.toLowerCase(Locale.ROOT);
+        this.hash = canonical.hashCode();
+    }
+
     public static License of(String identifier) {
         if (identifier.isBlank()) {
             return NONE;
@@ -44,26 +61,42 @@ public abstract class License {
         return true;
     }
 
+    /**
+     * @return the identifier if this is a single license without an exception, or else empty
+     */
+    public Optional<String> getSingleIdentifier() {
+        return Optional.empty();
+    }
+
     @Override
     public final int hashCode() {
-        return toString().toLowerCase().hashCode();
+        return hash;
     }
 
     @Override
-    public final boolean equals(Object obj) {
+    public final boolean equals(@NullOr Object obj) {
+        if (this == obj) {
+            return true;
+        }
         if (!(obj instanceof License)) {
             return false;
         }
-        return this.getClass() == obj.getClass()
-                && toString().equalsIgnoreCase(obj.toString());
+        final var other = (License) obj;
+        return this.getClass() == other.getClass()
+                && hash == other.hash
+                && canonical.equals(other.canonical);
     }
 
     @Override
-    public String toString() {
-        return "License{}";
+    public final String toString() {
+        return text;
     }
 
     private static class NoLicense extends License {
+        NoLicense() {
+            super("");
+        }
+
         @Override
         public boolean isDefined() {
             return false;
@@ -78,20 +111,20 @@ public abstract class License {
         public License or(License license) {
             return license;
         }
-
-        @Override
-        public String toString() {
-            return "";
-        }
     }
 
     private static class SingleLicense extends License {
         private final String identifier;
-
-        private @NullOr String exception = null;
+        private final @NullOr String exception;
 
         SingleLicense(String identifier) {
+            this(identifier, null);
+        }
+
+        private SingleLicense(String identifier, @NullOr String exception) {
+            super((exception != null) ? identifier + " WITH " + exception : identifier);
             this.identifier = identifier;
+            this.exception = exception;
         }
 
         @Override
@@ -99,57 +132,69 @@ public abstract class License {
             if (this.exception != null) {
                 throw new LicenseException("Adding a second exception is not allowed");
             }
-            final var license = new SingleLicense(identifier);
-            license.exception = exception.trim();
-            return license;
+            return new SingleLicense(identifier, exception.trim());
         }
 
         @Override
-        public boolean isDefined() {
-            return !identifier.equals("NOASSERTION");
+        public Optional<String> getSingleIdentifier() {
+            return (exception == null) ? Optional.of(identifier) : Optional.empty();
         }
 
         @Override
-        public String toString() {
-            return (exception != null)
-                    ? String.format("%s WITH %s", identifier, exception)
-                    : identifier;
+        public boolean isDefined() {
+            return !identifier.equals("NOASSERTION");
         }
     }
 
-    private static class ComboLicense extends License {
-        private final String operation;
-        private final Set<License> licenses = new HashSet<>();
-
-        public ComboLicense(String operation, License license) {
-            this.operation = String.format(" %s ", operation);
-            licenses.add(license);
-        }
+    private abstract static class ComboLicense extends License {
+        private final Set<License> licenses;
 
-        License merge(License license) {
-            if (license.getClass() == this.getClass()) {
-                licenses.addAll(((ComboLicense) license).licenses);
-            } else if (!(license instanceof NoLicense)) {
-                licenses.add(license);
-            }
-            return this;
+        ComboLicense(String operation, Set<License> licenses) {
+            super(textOf(operation, licenses));
+            this.licenses = Collections.unmodifiableSet(licenses);
         }
 
-        @Override
-        public String toString() {
+        private static String textOf(String operation, Set<License> licenses) {
             return licenses.stream()
                     .filter(License::isDefined)
                     .map(license -> (license instanceof ComboLicense)
-                            ? String.format("(%s)", license)
+                            ? "(" + license + ")"
                             : license.toString())
                     .sorted(String::compareToIgnoreCase)
-                    .collect(Collectors.joining(operation));
+                    .collect(Collectors.joining(" " + operation + " "));
+        }
+
+        /**
+         * @return a new combination that includes the provided license
+         */
+        License merge(License license) {
+            if (license instanceof NoLicense) {
+                return this;
+            }
+            final var merged = new HashSet<>(licenses);
+            if (license.getClass() == this.getClass()) {
+                merged.addAll(((ComboLicense) license).licenses);
+            } else {
+                merged.add(license);
+            }
+            return (merged.size() != licenses.size()) ? create(merged) : this;
         }
+
+        abstract ComboLicense create(Set<License> licenses);
     }
 
     private static class OrLicense extends ComboLicense {
-        public OrLicense(License license) {
-            super("OR", license);
+        OrLicense(License license) {
+            this(new HashSet<>(Set.of(license)));
+        }
+
+        private OrLicense(Set<License> licenses) {
+            super("OR", licenses);
+        }
+
+        @Override
+        ComboLicense create(Set<License> licenses) {
+            return new OrLicense(licenses);
         }
 
         @Override
@@ -159,8 +204,17 @@ public abstract class License {
     }
 
     private static class AndLicense extends ComboLicense {
-        public AndLicense(License license) {
-            super("AND", license);
+        AndLicense(License license) {
+            this(new HashSet<>(Set.of(license)));
+        }
+
+        private AndLicense(Set<License> licenses) {
+            super("AND", licenses);
+        }
+
+        @Override
+        ComboLicense create(Set<License> licenses) {
+            return new AndLicense(licenses);
         }
 
         @Override
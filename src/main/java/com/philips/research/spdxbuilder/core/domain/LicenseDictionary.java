@@ -11,29 +11,40 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import pl.tlinkowski.annotation.basic.NullOr;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
-import java.util.regex.MatchResult;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+/**
+ * Dictionary of SPDX licenses and exceptions, allocating LicenseRef identifiers for non-SPDX licenses.
+ * The SPDX tables are immutable after loading, and custom licenses are allocated atomically, so the
+ * dictionary can be shared by concurrent readers and knowledge bases without locking.
+ * <p>
+ * The SPDX tables are read from the compact index that is generated from the SPDX license lists by the build,
+ * and only fall back to parsing the (much larger) JSON license lists if the index is not on the classpath.
+ * </p>
+ */
 public class LicenseDictionary {
     private static final ObjectMapper MAPPER = new ObjectMapper()
             .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
             .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.NON_PRIVATE);
+    private static final @NullOr URL INDEX = LicenseDictionary.class.getResource("/spdx-licenses.idx");
     @SuppressWarnings("ConstantConditions")
     private static final URL LICENSES = LicenseDictionary.class.getResource("/licenses.json");
     @SuppressWarnings("ConstantConditions")
     private static final URL EXCEPTIONS = LicenseDictionary.class.getResource("/exceptions.json");
     private static final String PREFIX = "LicenseRef-";
     private static final Map<String, Function<LicenseDictionary, License>> UPGRADE_MAP = new HashMap<>();
-    private static final Pattern LICENSE_REF = Pattern.compile("LicenseRef-\\w+");
-
-    private static @NullOr LicenseDictionary instance;
 
     static {
         UPGRADE_MAP.put("apl-1.0", dict -> dict.licenseFor("AGPL-1.0-only"));
@@ -71,27 +82,70 @@ public class LicenseDictionary {
     }
 
     private final String version;
-    private final Map<String, String> spdxIdentifiers = new HashMap<>();
-    private final Map<String, Integer> customIdentifiers = new HashMap<>();
-    private final Map<Integer, String> customLicenses = new HashMap<>();
-    private final Map<String, String> spdxExceptions = new HashMap<>();
-    private int nextCustomId = 1;
+    private final Map<String, String> spdxIdentifiers;
+    private final Map<String, String> spdxExceptions;
+    private final Map<String, Integer> customIdentifiers = new ConcurrentHashMap<>();
+    private final Map<Integer, String> customLicenses = new ConcurrentHashMap<>();
+    private final AtomicInteger nextCustomId = new AtomicInteger(1);
+    private final Map<String, String> expansions = new ConcurrentHashMap<>();
 
     LicenseDictionary() {
-        version = loadLicenses();
-        spdxIdentifiers.put("noassertion", "NOASSERTION");
-        loadExceptions();
+        this(INDEX);
     }
 
-    public static LicenseDictionary getInstance() {
-        if (instance == null) {
-            instance = new LicenseDictionary();
+    /**
+     * @param index generated license index, or <code>null</code> to read the SPDX license lists
+     */
+    LicenseDictionary(@NullOr URL index) {
+        final var identifiers = new HashMap<String, String>();
+        final var exceptions = new HashMap<String, String>();
+        if (index != null) {
+            version = loadIndex(index, identifiers, exceptions);
+        } else {
+            version = loadLicenses(identifiers);
+            loadExceptions(exceptions);
         }
+        identifiers.put("noassertion", "NOASSERTION");
+        spdxIdentifiers = Map.copyOf(identifiers);
+        spdxExceptions = Map.copyOf(exceptions);
+    }
+
+    /**
+     * @return the shared dictionary, which is loaded upon first use
+     */
+    public static LicenseDictionary getInstance() {
+        return Holder.INSTANCE;
+    }
 
-        return instance;
+    /**
+     * Reads the index with a version header line "#&lt;version&gt;", followed by tab-separated lines
+     * "L|E &lt;identifier&gt; &lt;name&gt;" for every (non-deprecated) license and exception.
+     */
+    private String loadIndex(URL index, Map<String, String> spdxIdentifiers, Map<String, String> spdxExceptions) {
+        try (final var reader = new BufferedReader(new InputStreamReader(index.openStream(), StandardCharsets.UTF_8))) {
+            var version = "";
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#")) {
+                    version = line.substring(1).trim();
+                    continue;
+                }
+                final var sep = line.indexOf('\t', 2);
+                if (line.length() < 3 || line.charAt(1) != '\t' || sep < 0) {
+                    throw new IOException("Malformed line: " + line);
+                }
+                final var map = (line.charAt(0) == 'E') ? spdxExceptions : spdxIdentifiers;
+                final var id = line.substring(2, sep);
+                map.put(id.toLowerCase(), id);
+                map.put(line.substring(sep + 1).toLowerCase(), id);
+            }
+            return version;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read SPDX license index from " + index, e);
+        }
     }
 
-    private String loadLicenses() {
+    private String loadLicenses(Map<String, String> spdxIdentifiers) {
         try {
             final var json = MAPPER.readValue(LICENSES, LicensesJson.class);
             json.licenses.stream()
@@ -106,7 +160,7 @@ public class LicenseDictionary {
         }
     }
 
-    private void loadExceptions() {
+    private void loadExceptions(Map<String, String> spdxExceptions) {
         try {
             final var json = MAPPER.readValue(EXCEPTIONS, LicensesJson.class);
             json.exceptions.stream()
@@ -121,9 +175,11 @@ public class LicenseDictionary {
     }
 
     void clear() {
-        customLicenses.clear();
         customIdentifiers.clear();
-        nextCustomId = 1;
+        customLicenses.clear();
+        nextCustomId.set(1);
+        expansions.clear();
+        LicenseParser.clearCache();
     }
 
     public String getVersion() {
@@ -163,18 +219,68 @@ public class LicenseDictionary {
 
     private License getOrCreateCustomLicense(String identifier) {
         final var customId = PREFIX + customIdentifiers.computeIfAbsent(identifier.trim().toLowerCase(), x -> {
-            customLicenses.put(nextCustomId, identifier.trim());
-            return nextCustomId++;
+            final var id = nextCustomId.getAndIncrement();
+            customLicenses.put(id, identifier.trim());
+            return id;
         });
         return License.of(customId);
     }
 
+    /**
+     * Expansions are cached per license text, unless the license refers to an undefined custom license.
+     *
+     * @return the textual form of the license, with all custom license references replaced by their original text
+     */
     public String expand(License license) {
         final var text = license.toString();
-        final var map = getCustomLicenses();
-        return LICENSE_REF.matcher(text).results()
-                .map(MatchResult::group)
-                .reduce(text, (prev, ref) -> prev.replace(ref, map.getOrDefault(ref, "?")));
+        var pos = text.indexOf(PREFIX);
+        if (pos < 0) {
+            return text;
+        }
+        final @NullOr String cached = expansions.get(text);
+        if (cached != null) {
+            return cached;
+        }
+
+        var resolved = true;
+        final var buffer = new StringBuilder(text.length() + 64);
+        var last = 0;
+        while (pos >= 0) {
+            final var start = pos + PREFIX.length();
+            var end = start;
+            while (end < text.length() && isWordCharacter(text.charAt(end))) {
+                end++;
+            }
+            buffer.append(text, last, pos);
+            final @NullOr String custom = (end > start) ? customLicenseText(text.substring(start, end)) : null;
+            if (custom != null) {
+                buffer.append(custom);
+            } else if (end > start) {
+                buffer.append('?');
+                resolved = false;
+            } else {
+                buffer.append(PREFIX);
+            }
+            last = end;
+            pos = text.indexOf(PREFIX, end);
+        }
+        final var result = buffer.append(text, last, text.length()).toString();
+        if (resolved) {
+            expansions.put(text, result);
+        }
+        return result;
+    }
+
+    private static boolean isWordCharacter(char ch) {
+        return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9') || ch == '_';
+    }
+
+    private @NullOr String customLicenseText(String suffix) {
+        try {
+            return customLicenses.get(Integer.parseInt(suffix));
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
     public Map<String, String> getCustomLicenses() {
@@ -182,6 +288,13 @@ public class LicenseDictionary {
                 .collect(Collectors.toMap(e -> PREFIX + e.getKey(), Map.Entry::getValue));
     }
 
+    /**
+     * Lazily instantiates the shared dictionary (thread-safe by the class loading guarantees of the JVM).
+     */
+    private static class Holder {
+        static final LicenseDictionary INSTANCE = new LicenseDictionary();
+    }
+
     @SuppressWarnings({"NotNullFieldNotInitialized", "MismatchedQueryAndUpdateOfCollection"})
     private static class LicensesJson {
         String licenseListVersion;
@@ -7,12 +7,22 @@ package com.philips.research.spdxbuilder.core.domain;
 
 import pl.tlinkowski.annotation.basic.NullOr;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Parser for SPDX-like license statements containing AND, OR, WITH clauses and braces.
+ * Parsed licenses are cached by their literal text, because the same expressions tend to repeat across packages.
  */
 public class LicenseParser {
+    private static final int MAX_CACHE_SIZE = 10_000;
+    private static final Map<String, License> CACHE = new ConcurrentHashMap<>();
+    private static final AtomicLong CACHE_HITS = new AtomicLong();
+    private static final AtomicLong CACHE_MISSES = new AtomicLong();
+
     private final LicenseDictionary dictionary;
-    private StringBuilder buffer = new StringBuilder();
+    private final StringBuilder buffer = new StringBuilder();
     private License license = License.NONE;
     private License current = License.NONE;
     private String identifier = "";
@@ -34,8 +44,42 @@ public class LicenseParser {
         if (text == null || text.isBlank()) {
             return License.NONE;
         }
+        final @NullOr License cached = CACHE.get(text);
+        if (cached != null) {
+            CACHE_HITS.incrementAndGet();
+            return cached;
+        }
+
+        CACHE_MISSES.incrementAndGet();
         //TODO Catch any exceptions and convert to single plain license via dictionary
-        return new LicenseParser().decode(text);
+        final var license = new LicenseParser().decode(text);
+        if (CACHE.size() < MAX_CACHE_SIZE) {
+            CACHE.putIfAbsent(text, license);
+        }
+        return license;
+    }
+
+    /**
+     * @return number of parsed licenses that were served from the cache
+     */
+    public static long getCacheHits() {
+        return CACHE_HITS.get();
+    }
+
+    /**
+     * @return number of parsed licenses that were decoded from their text
+     */
+    public static long getCacheMisses() {
+        return CACHE_MISSES.get();
+    }
+
+    /**
+     * Discards all cached licenses, e.g. because the custom licenses of the dictionary were reset.
+     */
+    static void clearCache() {
+        CACHE.clear();
+        CACHE_HITS.set(0);
+        CACHE_MISSES.set(0);
     }
 
     private License decode(String text) {
@@ -105,7 +149,7 @@ public class LicenseParser {
                     identifier += ' ' + token;
                 }
         }
-        buffer = new StringBuilder();
+        buffer.setLength(0);
     }
 
     private void appendCurrent() {
@@ -77,6 +77,9 @@ public final class Package {
         return Optional.ofNullable(purl);
     }
 
+    /**
+     * Sets the package URL, which must not be changed after the package is added to a bill-of-materials.
+     */
     public Package setPurl(PackageURL purl) {
         this.purl = purl;
         return this;
@@ -8,33 +8,37 @@ package com.philips.research.spdxbuilder.core.domain;
 import com.github.packageurl.PackageURL;
 import pl.tlinkowski.annotation.basic.NullOr;
 
+/**
+ * Glob pattern for package URLs, where "*" matches any (possibly empty) sequence of characters.
+ * Every part of the pattern is compiled into its literal fragments, so matching takes linear time.
+ */
 public class PurlGlob {
     private static final String ANY = "*";
 
-    private final String type;
-    private final String namespace;
-    private final String name;
-    private final String version;
+    private final Part type;
+    private final Part namespace;
+    private final Part name;
+    private final Part version;
 
     public PurlGlob(String pattern) {
         final var sanitized = sanitized(pattern);
 
         final var versionPos = posOrLength(sanitized, '@');
-        version = versionPos < sanitized.length() ? sanitized.substring(versionPos + 1) : ANY;
+        version = new Part(versionPos < sanitized.length() ? sanitized.substring(versionPos + 1) : ANY);
 
         final var path = sanitized.substring(0, versionPos).split("/");
         if (path.length == 1 && !path[0].isEmpty()) {
-            type = ANY;
-            namespace = ANY;
-            name = path[0];
+            type = new Part(ANY);
+            namespace = new Part(ANY);
+            name = new Part(path[0]);
         } else if (path.length == 2) {
-            namespace = ANY;
-            type = path[0];
-            name = path[1];
+            namespace = new Part(ANY);
+            type = new Part(path[0]);
+            name = new Part(path[1]);
         } else if (path.length == 3) {
-            type = path[0];
-            namespace = path[1];
-            name = path[2];
+            type = new Part(path[0]);
+            namespace = new Part(path[1]);
+            name = new Part(path[2]);
         } else {
             throw new IllegalArgumentException("Invalid package URL glob: " + pattern);
         }
@@ -56,34 +60,62 @@ public class PurlGlob {
         return pos;
     }
 
+    /**
+     * @return the type if the pattern matches only a single literal type
+     */
+    @NullOr String getLiteralType() {
+        return type.literal;
+    }
+
+    /**
+     * @return the namespace if the pattern matches only a single literal namespace
+     */
+    @NullOr String getLiteralNamespace() {
+        return namespace.literal;
+    }
+
     public boolean matches(PackageURL purl) {
-        return matches(type, purl.getType())
-                && matches(namespace, purl.getNamespace())
-                && matches(name, purl.getName())
-                && matches(version, purl.getVersion());
+        return type.matches(purl.getType())
+                && namespace.matches(purl.getNamespace())
+                && name.matches(purl.getName())
+                && version.matches(purl.getVersion());
     }
 
-    private boolean matches(String pattern, @NullOr String string) {
-        string = string == null ? "" : string;
-        var pos = 0;
-        for (var i = 0; i < pattern.length(); i++) {
-            if (pattern.substring(i).equals(string.substring(pos))) {
-                return true;
+    /**
+     * Compiled pattern for a single part of a package URL.
+     */
+    private static final class Part {
+        private final @NullOr String literal;
+        private final String[] fragments;
+
+        Part(String pattern) {
+            literal = pattern.contains(ANY) ? null : pattern;
+            fragments = pattern.split("\\*", -1);
+        }
+
+        boolean matches(@NullOr String string) {
+            string = string == null ? "" : string;
+            if (literal != null) {
+                return literal.equals(string);
             }
-            if (pattern.charAt(i) == '*') {
-                final var remaining = pattern.substring(i + 1);
-                for (var sub = pos; sub <= string.length(); sub++) {
-                    if (matches(remaining, string.substring(sub))) {
-                        return true;
-                    }
-                }
+
+            final var first = fragments[0];
+            final var last = fragments[fragments.length - 1];
+            if (string.length() < first.length() + last.length()
+                    || !string.startsWith(first) || !string.endsWith(last)) {
                 return false;
             }
-            if (pos == string.length() || pattern.charAt(i) != string.charAt(pos)) {
-                return false;
+            var pos = first.length();
+            final var end = string.length() - last.length();
+            for (var i = 1; i < fragments.length - 1; i++) {
+                final var fragment = fragments[i];
+                final var index = string.indexOf(fragment, pos);
+                if (index < 0 || index + fragment.length() > end) {
+                    return false;
+                }
+                pos = index + fragment.length();
             }
-            pos++;
+            return true;
         }
-        return pattern.isEmpty() && string.isEmpty();
     }
 }
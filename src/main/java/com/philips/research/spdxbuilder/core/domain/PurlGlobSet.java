@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2020-2021, Koninklijke Philips N.V., https://www.philips.com
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.philips.research.spdxbuilder.core.domain;
+
+import com.github.packageurl.PackageURL;
+import pl.tlinkowski.annotation.basic.NullOr;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set of package URL globs, indexed by their literal type and namespace.
+ * A package URL is only tested against the globs that can possibly match its type and namespace.
+ */
+public class PurlGlobSet {
+    private final Map<String, List<PurlGlob>> byNamespace = new HashMap<>();
+    private final Map<String, List<PurlGlob>> byType = new HashMap<>();
+    private final List<PurlGlob> others = new ArrayList<>();
+
+    public PurlGlobSet add(PurlGlob glob) {
+        final @NullOr String type = glob.getLiteralType();
+        final @NullOr String namespace = glob.getLiteralNamespace();
+        if (type != null && namespace != null) {
+            byNamespace.computeIfAbsent(key(type, namespace), k -> new ArrayList<>()).add(glob);
+        } else if (type != null) {
+            byType.computeIfAbsent(type, k -> new ArrayList<>()).add(glob);
+        } else {
+            others.add(glob);
+        }
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return byNamespace.isEmpty() && byType.isEmpty() && others.isEmpty();
+    }
+
+    /**
+     * @return true if any of the globs matches the package URL
+     */
+    public boolean matches(PackageURL purl) {
+        if (isEmpty()) {
+            return false;
+        }
+        final var type = purl.getType();
+        return matchesAny(byNamespace.get(key(type, purl.getNamespace())), purl)
+                || matchesAny(byType.get(type), purl)
+                || matchesAny(others, purl);
+    }
+
+    private boolean matchesAny(@NullOr List<PurlGlob> globs, PackageURL purl) {
+        if (globs == null) {
+            return false;
+        }
+        for (var glob : globs) {
+            if (glob.matches(purl)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String key(String type, @NullOr String namespace) {
+        return type + '/' + (namespace != null ? namespace : "");
+    }
+}
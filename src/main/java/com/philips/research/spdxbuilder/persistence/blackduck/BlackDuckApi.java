@@ -49,20 +49,23 @@ public interface BlackDuckApi {
     Call<ItemsJson<ProjectVersionJson>> findProjectVersions(@Path("projectId") UUID projectId, @Query("q") String filter);
 
     @Headers(BILL_OF_MATERIALS_6_JSON)
-    @GET("/api/projects/{projectId}/versions/{versionId}/components?limit=9999")
-    Call<ItemsJson<ComponentVersionJson>> getBomComponents(@Path("projectId") UUID projectId, @Path("versionId") UUID versionId);
+    @GET("/api/projects/{projectId}/versions/{versionId}/components")
+    Call<ItemsJson<ComponentVersionJson>> getBomComponents(@Path("projectId") UUID projectId, @Path("versionId") UUID versionId,
+                                                           @Query("offset") int offset, @Query("limit") int limit);
 
     @Headers(BILL_OF_MATERIALS_6_JSON)
-    @GET("/api/projects/{projectId}/versions/{versionId}/hierarchical-components?limit=9999")
-    Call<ItemsJson<ComponentVersionJson>> getRootComponentVersions(@Path("projectId") UUID projectId, @Path("versionId") UUID versionId);
+    @GET("/api/projects/{projectId}/versions/{versionId}/hierarchical-components")
+    Call<ItemsJson<ComponentVersionJson>> getRootComponentVersions(@Path("projectId") UUID projectId, @Path("versionId") UUID versionId,
+                                                                   @Query("offset") int offset, @Query("limit") int limit);
 
     @Headers(BILL_OF_MATERIALS_6_JSON)
-    @GET("/api/projects/{projectId}/versions/{versionId}/components/{componentId}/versions/{componentVersionId}/hierarchical-components/{hierarchicalId}/children?limit=999")
+    @GET("/api/projects/{projectId}/versions/{versionId}/components/{componentId}/versions/{componentVersionId}/hierarchical-components/{hierarchicalId}/children")
     Call<ItemsJson<ComponentVersionJson>> getChildComponentVersions(@Path("projectId") UUID projectId,
                                                                     @Path("versionId") UUID versionId,
                                                                     @Path("componentId") UUID componentId,
                                                                     @Path("componentVersionId") UUID componentVersionId,
-                                                                    @Path("hierarchicalId") long hierarchicalId);
+                                                                    @Path("hierarchicalId") long hierarchicalId,
+                                                                    @Query("offset") int offset, @Query("limit") int limit);
 
     @Headers(COMPONENT_DETAIL_4_JSON)
     @GET("/api/components/{componentId}")
@@ -79,6 +82,7 @@ public interface BlackDuckApi {
     }
 
     class ItemsJson<T> {
+        int totalCount = -1;
         List<T> items = new ArrayList<>();
     }
 
@@ -12,8 +12,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import okhttp3.OkHttpClient;
+import com.philips.research.spdxbuilder.persistence.blackduck.BlackDuckApi.ItemsJson;
 import pl.tlinkowski.annotation.basic.NullOr;
 import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.converter.jackson.JacksonConverterFactory;
 
@@ -22,11 +25,13 @@ import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 import java.io.IOException;
 import java.net.URL;
-import java.util.Collection;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class BlackDuckClient {
     private static final ObjectMapper MAPPER = new ObjectMapper()
@@ -38,6 +43,7 @@ public class BlackDuckClient {
 
     private final BlackDuckApi api;
     private @NullOr String bearerToken;
+    private int pageSize = 100;
 
     public BlackDuckClient(URL url, boolean skipSSL) {
         this.url = url;
@@ -116,27 +122,41 @@ public class BlackDuckClient {
         return items.stream().filter(item -> name.equals(item.getName())).findAny();
     }
 
-    List<BlackDuckComponent> getRootComponents(UUID projectId, UUID versionId) {
-        //noinspection unchecked
-        final var components = query(api.getRootComponentVersions(projectId, versionId))
-                .map(object -> (List<BlackDuckComponent>) (List<? extends BlackDuckComponent>) object.items)
-                .orElse(List.of());
-        //noinspection unchecked
-        final var subprojects = query(api.getBomComponents(projectId, versionId))
-                .map(object -> (List<BlackDuckComponent>) (List<? extends BlackDuckComponent>) object.items)
-                .orElse(List.of()).stream()
-                .filter(BlackDuckComponent::isAdditionalComponent)
-                .collect(Collectors.toList());
-        components.addAll(subprojects);
-        return components;
+    /**
+     * @param pageSize maximum number of items retrieved per request
+     */
+    BlackDuckClient setPageSize(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1, but was " + pageSize);
+        }
+        this.pageSize = pageSize;
+        return this;
     }
 
-    List<BlackDuckComponent> getDependencies(UUID projectId, UUID versionId, BlackDuckComponent component) {
-        //noinspection unchecked
-        return query(api.getChildComponentVersions(projectId, versionId,
-                component.getId(), component.getVersionId(), component.getHierarchicalId()))
-                .map(object -> (List<BlackDuckComponent>) (List<? extends BlackDuckComponent>) object.items)
-                .orElse(List.of());
+    Stream<BlackDuckComponent> getRootComponents(UUID projectId, UUID versionId) {
+        final Supplier<Stream<BlackDuckComponent>> components =
+                () -> paged((offset, limit) -> api.getRootComponentVersions(projectId, versionId, offset, limit));
+        final Supplier<Stream<BlackDuckComponent>> subprojects =
+                () -> paged((offset, limit) -> api.getBomComponents(projectId, versionId, offset, limit))
+                        .filter(BlackDuckComponent::isAdditionalComponent);
+        return Stream.of(components, subprojects).flatMap(Supplier::get);
+    }
+
+    Stream<BlackDuckComponent> getDependencies(UUID projectId, UUID versionId, BlackDuckComponent component) {
+        return paged((offset, limit) -> api.getChildComponentVersions(projectId, versionId,
+                component.getId(), component.getVersionId(), component.getHierarchicalId(), offset, limit));
+    }
+
+    /**
+     * Lazily streams all items of a paginated listing.
+     * The first page is requested when the stream is consumed, and each next page is requested as soon
+     * as the preceding page is received. These (asynchronous) page requests are not bounded by the maximum
+     * number of requests of the reader, so every listing that is being consumed adds one more request in flight.
+     */
+    private <T extends BlackDuckComponent> Stream<BlackDuckComponent> paged(BiFunction<Integer, Integer, Call<ItemsJson<T>>> request) {
+        return StreamSupport.stream(() -> Spliterators.spliteratorUnknownSize(new PageIterator<>(request, pageSize), Spliterator.ORDERED),
+                Spliterator.ORDERED, false)
+                .map(BlackDuckComponent.class::cast);
     }
 
     BlackDuckComponentDetails getComponentDetails(BlackDuckComponent component) {
@@ -149,9 +169,98 @@ public class BlackDuckClient {
             if (response.isSuccessful()) {
                 return Optional.ofNullable(response.body());
             }
-            throw new BlackDuckException("Server responded with status " + response.code() + " " + response.message());
+            throw statusException(response);
         } catch (IOException e) {
-            throw new BlackDuckException("Failed to connect to Black Duck server on " + url, e);
+            throw connectionException(e);
+        }
+    }
+
+    <T> CompletableFuture<Optional<T>> queryAsync(Call<T> request) {
+        final var result = new CompletableFuture<Optional<T>>();
+        request.enqueue(new Callback<>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                if (response.isSuccessful()) {
+                    result.complete(Optional.ofNullable(response.body()));
+                } else {
+                    result.completeExceptionally(statusException(response));
+                }
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                result.completeExceptionally(connectionException(t));
+            }
+        });
+        return result;
+    }
+
+    private BlackDuckException statusException(Response<?> response) {
+        return new BlackDuckException("Server responded with status " + response.code() + " " + response.message());
+    }
+
+    private BlackDuckException connectionException(Throwable cause) {
+        return new BlackDuckException("Failed to connect to Black Duck server on " + url, cause);
+    }
+
+    /**
+     * Iterates the items of a paginated listing, prefetching the next page while the current page is processed.
+     */
+    private class PageIterator<T> implements Iterator<T> {
+        private final BiFunction<Integer, Integer, Call<ItemsJson<T>>> request;
+        private final int limit;
+        private Iterator<T> page = Collections.emptyIterator();
+        private @NullOr CompletableFuture<Optional<ItemsJson<T>>> next;
+        private int offset;
+
+        PageIterator(BiFunction<Integer, Integer, Call<ItemsJson<T>>> request, int limit) {
+            this.request = request;
+            this.limit = limit;
+            this.next = fetch();
+        }
+
+        private CompletableFuture<Optional<ItemsJson<T>>> fetch() {
+            return queryAsync(request.apply(offset, limit));
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!page.hasNext() && next != null) {
+                final ItemsJson<T> json = await(next).orElseGet(ItemsJson::new);
+                offset += json.items.size();
+                next = hasMore(json) ? fetch() : null;
+                page = json.items.iterator();
+            }
+            return page.hasNext();
+        }
+
+        /**
+         * Relies on the total count if provided, because servers can return smaller pages than requested.
+         */
+        private boolean hasMore(ItemsJson<T> json) {
+            if (json.totalCount >= 0) {
+                return !json.items.isEmpty() && offset < json.totalCount;
+            }
+            return json.items.size() >= limit;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+
+        private Optional<ItemsJson<T>> await(CompletableFuture<Optional<ItemsJson<T>>> future) {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new BlackDuckException("Failed to retrieve items from Black Duck", e.getCause());
+            }
         }
     }
 }
@@ -14,6 +14,8 @@ import pl.tlinkowski.annotation.basic.NullOr;
 
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
 
 public class BlackDuckReader implements BomReader {
     private static final Map<String, Relation.Type> USAGE_MAPPING = Map.of(
@@ -29,7 +31,10 @@ public class BlackDuckReader implements BomReader {
     private final String token;
     private final String projectName;
     private final String versionName;
-    private final Map<PackageURL, Package> packages = new HashMap<>();
+    private final Map<UUID, CompletableFuture<BlackDuckComponentDetails>> componentDetails = new ConcurrentHashMap<>();
+    private final Map<SubtreeKey, CompletableFuture<List<ComponentNode>>> subtrees = new ConcurrentHashMap<>();
+    private final Map<Package, Set<List<ComponentNode>>> expanded = new HashMap<>();
+    private int maxRequests = 1;
     @SuppressWarnings("NotNullFieldNotInitialized")
     private BlackDuckProduct project;
     @SuppressWarnings("NotNullFieldNotInitialized")
@@ -46,6 +51,27 @@ public class BlackDuckReader implements BomReader {
         this.versionName = versionName;
     }
 
+    /**
+     * Limits the number of concurrent requests while retrieving the component hierarchy.
+     *
+     * @param maxRequests maximum number of requests in flight (1 for sequential requests)
+     */
+    public BlackDuckReader setMaxRequests(int maxRequests) {
+        if (maxRequests < 1) {
+            throw new IllegalArgumentException("Maximum number of requests must be at least 1, but was " + maxRequests);
+        }
+        this.maxRequests = maxRequests;
+        return this;
+    }
+
+    /**
+     * @param pageSize maximum number of components retrieved per request
+     */
+    public BlackDuckReader setPageSize(int pageSize) {
+        client.setPageSize(pageSize);
+        return this;
+    }
+
     @Override
     public void read(BillOfMaterials bom) {
         client.authenticate(token);
@@ -90,27 +116,123 @@ public class BlackDuckReader implements BomReader {
         projectVersion.getCreatedAt().ifPresent(bom::setCreatedAt);
         bom.addPackage(root);
 
-        final var components = client.getRootComponents(project.getId(), projectVersion.getId());
-        addChildren(bom, root, components, project.getId(), projectVersion.getId());
+        final var components = loadHierarchy(project.getId(), projectVersion.getId());
+        addChildren(bom, root, components);
+    }
+
+    /**
+     * Retrieves the full component hierarchy of a project version, keeping at most the configured number of
+     * requests in flight. The order of the components is maintained, irrespective of the order of the responses.
+     * (Note that the complete hierarchy is held in memory before any package is added to the bill-of-materials,
+     * although component listings are streamed page by page.)
+     */
+    private List<ComponentNode> loadHierarchy(UUID projectId, UUID versionId) {
+        final @NullOr ExecutorService pool = (maxRequests > 1)
+                ? Executors.newFixedThreadPool(maxRequests, this::newThread)
+                : null;
+        final Executor executor = (pool != null) ? pool : Runnable::run;
+        try {
+            return await(CompletableFuture.supplyAsync(() -> client.getRootComponents(projectId, versionId), executor)
+                    .thenCompose(components -> expandAll(components, projectId, versionId, executor)));
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    private Thread newThread(Runnable runnable) {
+        final var thread = new Thread(runnable, "black-duck");
+        thread.setDaemon(true);
+        return thread;
     }
 
-    void addChildren(BillOfMaterials bom, @NullOr Package parent, List<BlackDuckComponent> components, UUID projectId, UUID versionId) {
+    /**
+     * Expands every component while it is streamed, so the children are retrieved while further pages are loaded.
+     */
+    private CompletableFuture<List<ComponentNode>> expandAll(Stream<BlackDuckComponent> components, UUID projectId, UUID versionId, Executor executor) {
+        final var nodes = new ArrayList<ComponentNode>();
+        final var expansions = new ArrayList<CompletableFuture<Void>>();
         components.forEach(component -> {
-            if (component.isSubproject()) {
-                addSubproject(bom, parent, component.getId(), component.getVersionId(), component);
+            final var node = new ComponentNode(component, projectId, versionId);
+            nodes.add(node);
+            expansions.add(expand(node, executor));
+        });
+        return CompletableFuture.allOf(expansions.toArray(new CompletableFuture<?>[0])).thenApply(x -> nodes);
+    }
+
+    private CompletableFuture<Void> expand(ComponentNode node, Executor executor) {
+        final var component = node.getComponent();
+        if (component.isSubproject()) {
+            return expandChildren(node, executor);
+        }
+        if (component.getPackageUrls().isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        final var details = componentDetails.computeIfAbsent(component.getId(),
+                id -> CompletableFuture.supplyAsync(() -> client.getComponentDetails(component), executor));
+        node.setDetails(details);
+        return CompletableFuture.allOf(details, expandChildren(node, executor));
+    }
+
+    /**
+     * Expands the children of a node, sharing the subtree with any earlier node for the same hierarchy position.
+     */
+    private CompletableFuture<Void> expandChildren(ComponentNode node, Executor executor) {
+        final var subtree = new CompletableFuture<List<ComponentNode>>();
+        final var existing = subtrees.putIfAbsent(new SubtreeKey(node), subtree);
+        if (existing != null) {
+            return existing.thenAccept(node::setChildren);
+        }
+
+        CompletableFuture.supplyAsync(() -> childComponentsOf(node), executor)
+                .thenCompose(children -> expandAll(children, node.getProjectId(), node.getVersionId(), executor))
+                .whenComplete((children, error) -> {
+                    if (error != null) {
+                        subtree.completeExceptionally(error);
+                    } else {
+                        subtree.complete(children);
+                    }
+                });
+        return subtree.thenAccept(node::setChildren);
+    }
+
+    private Stream<BlackDuckComponent> childComponentsOf(ComponentNode node) {
+        final var component = node.getComponent();
+        return component.isSubproject()
+                ? client.getRootComponents(node.getProjectId(), node.getVersionId())
+                : client.getDependencies(node.getProjectId(), node.getVersionId(), component);
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new BlackDuckException("Failed to retrieve components from Black Duck", e.getCause());
+        }
+    }
+
+    void addChildren(BillOfMaterials bom, @NullOr Package parent, List<ComponentNode> nodes) {
+        nodes.forEach(node -> {
+            if (node.getComponent().isSubproject()) {
+                addSubproject(bom, parent, node);
             } else {
-                addChild(bom, parent, projectId, versionId, component);
+                addChild(bom, parent, node);
             }
             System.out.print(".");
         });
     }
 
-    private void addSubproject(BillOfMaterials bom, @NullOr Package parent, UUID projectId, UUID versionId, BlackDuckComponent component) {
+    private void addSubproject(BillOfMaterials bom, @NullOr Package parent, ComponentNode node) {
+        final var component = node.getComponent();
         final Package pkg = exportAnonymousPackage(bom, parent, component);
         component.getLicense().ifPresent(pkg::setConcludedLicense);
 
-        final var components = client.getRootComponents(projectId, versionId);
-        addChildren(bom, pkg, components, projectId, versionId);
+        addSubtree(bom, pkg, node);
     }
 
     private Package exportAnonymousPackage(BillOfMaterials bom, @NullOr Package parent, BlackDuckComponent component) {
@@ -121,7 +243,8 @@ public class BlackDuckReader implements BomReader {
         return pkg;
     }
 
-    private void addChild(BillOfMaterials bom, @NullOr Package parent, UUID projectId, UUID versionId, BlackDuckComponent component) {
+    private void addChild(BillOfMaterials bom, @NullOr Package parent, ComponentNode node) {
+        final var component = node.getComponent();
         final var purls = component.getPackageUrls();
         if (purls.isEmpty()) {
             System.err.println("\nWARNING: Component '" + component + "' does not specify any packages");
@@ -133,33 +256,47 @@ public class BlackDuckReader implements BomReader {
             System.err.println("\nWARNING: Component '" + component + "' specifies " + purls.size() + " packages");
             final var pkg = exportAnonymousPackage(bom, parent, component);
             purls.stream()
-                    .map(purl -> exportPackageIfNotExists(bom, component, purl, projectId, versionId))
+                    .map(purl -> exportPackageIfNotExists(bom, node, purl))
                     .forEach(child -> exportRelation(bom, pkg, child, Relation.Type.DEPENDS_ON));
             return;
         }
 
         final var purl = purls.get(0);
-        final var pkg = exportPackageIfNotExists(bom, component, purl, projectId, versionId);
+        final var pkg = exportPackageIfNotExists(bom, node, purl);
         exportRelation(bom, parent, pkg, relationshipFor(component));
     }
 
-    private Package exportPackageIfNotExists(BillOfMaterials bom, BlackDuckComponent component, PackageURL purl, UUID projectId, UUID versionId) {
-        @NullOr Package pkg = packages.computeIfAbsent(purl, x -> {
-            final var details = client.getComponentDetails(component);
+    private Package exportPackageIfNotExists(BillOfMaterials bom, ComponentNode node, PackageURL purl) {
+        final var component = node.getComponent();
+        final var pkg = bom.addPackageIfAbsent(purl, x -> {
+            //noinspection ConstantConditions
+            final var details = await(node.getDetails());
             final var newPkg = new Package(purl)
                     .setSummary(component.getName());
             component.getLicense().ifPresent(newPkg::setConcludedLicense);
             details.getDescription().ifPresent(newPkg::setDescription);
             details.getHomepage().ifPresent(newPkg::setHomePage);
-            bom.addPackage(newPkg);
             return newPkg;
         });
 
-        final var dependencies = client.getDependencies(projectId, versionId, component);
-        addChildren(bom, pkg, dependencies, projectId, versionId);
+        addSubtree(bom, pkg, node);
         return pkg;
     }
 
+    /**
+     * Adds the children of a node, unless the same (shared) subtree was already added to the package.
+     */
+    private void addSubtree(BillOfMaterials bom, Package pkg, ComponentNode node) {
+        final var children = node.getChildren();
+        if (children.isEmpty()) {
+            return;
+        }
+        final var added = expanded.computeIfAbsent(pkg, x -> Collections.newSetFromMap(new IdentityHashMap<>()));
+        if (added.add(children)) {
+            addChildren(bom, pkg, children);
+        }
+    }
+
     private void exportRelation(BillOfMaterials bom, @NullOr Package parent, Package child, Relation.Type relationship) {
         if (parent != null) {
             bom.addRelation(parent, child, relationship);
@@ -175,4 +312,41 @@ public class BlackDuckReader implements BomReader {
                 .min(Comparator.comparingInt(Enum::ordinal))
                 .orElse(Relation.Type.DEPENDS_ON);
     }
+
+    /**
+     * Identifies the position of a component in the hierarchy of a project version.
+     */
+    private static final class SubtreeKey {
+        private final UUID projectId;
+        private final UUID versionId;
+        private final UUID componentId;
+        private final UUID componentVersionId;
+        private final long hierarchicalId;
+
+        SubtreeKey(ComponentNode node) {
+            final var component = node.getComponent();
+            this.projectId = node.getProjectId();
+            this.versionId = node.getVersionId();
+            this.componentId = component.getId();
+            this.componentVersionId = component.getVersionId();
+            this.hierarchicalId = component.isSubproject() ? 0 : component.getHierarchicalId();
+        }
+
+        @Override
+        public boolean equals(@NullOr Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            SubtreeKey other = (SubtreeKey) o;
+            return hierarchicalId == other.hierarchicalId
+                    && projectId.equals(other.projectId)
+                    && versionId.equals(other.versionId)
+                    && componentId.equals(other.componentId)
+                    && componentVersionId.equals(other.componentVersionId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(projectId, versionId, componentId, componentVersionId, hierarchicalId);
+        }
+    }
 }
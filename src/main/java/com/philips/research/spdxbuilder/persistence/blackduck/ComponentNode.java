@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2020-2021, Koninklijke Philips N.V., https://www.philips.com
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.philips.research.spdxbuilder.persistence.blackduck;
+
+import pl.tlinkowski.annotation.basic.NullOr;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Component in the retrieved hierarchy of a Black Duck project version.
+ */
+class ComponentNode {
+    private final BlackDuckComponent component;
+    private final UUID projectId;
+    private final UUID versionId;
+    private List<ComponentNode> children = List.of();
+    private @NullOr CompletableFuture<BlackDuckComponentDetails> details;
+
+    ComponentNode(BlackDuckComponent component, UUID projectId, UUID versionId) {
+        this.component = component;
+        this.projectId = projectId;
+        this.versionId = versionId;
+    }
+
+    BlackDuckComponent getComponent() {
+        return component;
+    }
+
+    /**
+     * @return project containing the child components
+     */
+    UUID getProjectId() {
+        return component.isSubproject() ? component.getId() : projectId;
+    }
+
+    /**
+     * @return project version containing the child components
+     */
+    UUID getVersionId() {
+        return component.isSubproject() ? component.getVersionId() : versionId;
+    }
+
+    List<ComponentNode> getChildren() {
+        return children;
+    }
+
+    ComponentNode setChildren(List<ComponentNode> children) {
+        this.children = children;
+        return this;
+    }
+
+    @NullOr CompletableFuture<BlackDuckComponentDetails> getDetails() {
+        return details;
+    }
+
+    ComponentNode setDetails(CompletableFuture<BlackDuckComponentDetails> details) {
+        this.details = details;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return component.toString();
+    }
+}
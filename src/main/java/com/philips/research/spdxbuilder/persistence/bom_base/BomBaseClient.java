@@ -12,7 +12,9 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.github.packageurl.PackageURL;
+import pl.tlinkowski.annotation.basic.NullOr;
 import retrofit2.Call;
+import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.converter.jackson.JacksonConverterFactory;
 
@@ -20,9 +22,10 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.util.Optional;
+import java.util.*;
 
 class BomBaseClient {
+    private static final Set<Integer> BATCH_NOT_SUPPORTED = Set.of(404, 405, 501);
     private static final ObjectMapper MAPPER = new ObjectMapper()
             .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
             .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.NON_PRIVATE)
@@ -30,6 +33,9 @@ class BomBaseClient {
 
     private final URI server;
     private final BomBaseApi rest;
+    private @NullOr MetadataCache cache;
+    private int batchSize = 1;
+    private volatile boolean batchSupported = true;
 
     BomBaseClient(URI server) {
         this.server = server;
@@ -40,25 +46,108 @@ class BomBaseClient {
         rest = retrofit.create(BomBaseApi.class);
     }
 
+    /**
+     * Serves subsequent package reads from the provided cache where possible.
+     */
+    BomBaseClient setCache(MetadataCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * Enables batched lookups, which are not supported by every BOM-base server.
+     *
+     * @param batchSize maximum number of packages per request (1 to disable batched lookups)
+     */
+    BomBaseClient setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1, but was " + batchSize);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Reads the metadata of multiple packages in chunks of the configured batch size.
+     * Packages that cannot be resolved in bulk (e.g. because the server does not support batched lookups)
+     * are omitted from the result, and must be read individually.
+     *
+     * @return metadata (if known) per package URL
+     */
+    Map<PackageURL, Optional<PackageMetadata>> readPackages(Collection<PackageURL> purls) {
+        final var result = new HashMap<PackageURL, Optional<PackageMetadata>>();
+        final var pending = new LinkedHashMap<String, PackageURL>();
+        for (var purl : purls) {
+            final var canonical = purl.canonicalize();
+            final var cached = (cache != null) ? cache.get(canonical) : Optional.<MetadataCache.Entry>empty();
+            if (cached.isPresent()) {
+                result.put(purl, cached.get().getMetadata());
+            } else {
+                pending.put(canonical, purl);
+            }
+        }
+
+        final var keys = new ArrayList<>(pending.keySet());
+        for (var i = 0; i < keys.size() && batchSize > 1 && batchSupported; i += batchSize) {
+            final var chunk = keys.subList(i, Math.min(i + batchSize, keys.size()));
+            queryBatch(chunk).ifPresent(found -> chunk.forEach(key -> {
+                final BomBaseApi.@NullOr PackageJson meta = found.get(key);
+                if (cache != null) {
+                    cache.put(key, meta);
+                }
+                result.put(pending.get(key), Optional.ofNullable(meta));
+            }));
+        }
+        return result;
+    }
+
     Optional<PackageMetadata> readPackage(PackageURL purl) {
-        final var param = encode(purl.canonicalize());
-        return query(rest.getPackage(param)).map(meta -> meta);
+        final var canonical = purl.canonicalize();
+        if (cache != null) {
+            final var cached = cache.get(canonical);
+            if (cached.isPresent()) {
+                return cached.get().getMetadata();
+            }
+        }
+
+        final var meta = query(rest.getPackage(encode(canonical)));
+        if (cache != null) {
+            cache.put(canonical, meta.orElse(null));
+        }
+        return meta.map(m -> m);
     }
 
     private String encode(String uri) {
         return URLEncoder.encode(uri, StandardCharsets.UTF_8);
     }
 
+    private Optional<Map<String, BomBaseApi.PackageJson>> queryBatch(List<String> purls) {
+        final var response = execute(rest.getPackages(purls));
+        if (BATCH_NOT_SUPPORTED.contains(response.code())) {
+            System.err.println("WARNING: BOM-base server does not support batched lookups; reading packages individually");
+            batchSupported = false;
+            return Optional.empty();
+        }
+        if (!response.isSuccessful()) {
+            throw new BomBaseException("BOM-base server responded with status " + response.code());
+        }
+        return Optional.of((response.body() != null) ? response.body() : Map.of());
+    }
+
     private <T> Optional<T> query(Call<T> query) {
+        final var response = execute(query);
+        if (response.code() == 404) {
+            return Optional.empty();
+        }
+        if (!response.isSuccessful()) {
+            throw new BomBaseException("BOM-base server responded with status " + response.code());
+        }
+        return Optional.ofNullable(response.body());
+    }
+
+    private <T> Response<T> execute(Call<T> query) {
         try {
-            final var response = query.execute();
-            if (response.code() == 404) {
-                return Optional.empty();
-            }
-            if (!response.isSuccessful()) {
-                throw new BomBaseException("BOM-base server responded with status " + response.code());
-            }
-            return Optional.ofNullable(response.body());
+            return query.execute();
         } catch (JsonProcessingException e) {
             throw new IllegalArgumentException("JSON formatting error", e);
         } catch (IOException e) {
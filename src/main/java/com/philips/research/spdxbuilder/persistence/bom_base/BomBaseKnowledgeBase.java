@@ -5,14 +5,26 @@
 
 package com.philips.research.spdxbuilder.persistence.bom_base;
 
+import com.github.packageurl.PackageURL;
 import com.philips.research.spdxbuilder.core.KnowledgeBase;
 import com.philips.research.spdxbuilder.core.domain.LicenseParser;
 import com.philips.research.spdxbuilder.core.domain.Package;
+import pl.tlinkowski.annotation.basic.NullOr;
 
 import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 public class BomBaseKnowledgeBase extends KnowledgeBase {
+    // BOM-base harvests metadata asynchronously, so unknown packages are retried sooner
+    private static final Duration NOT_FOUND_TIME_TO_LIVE = Duration.ofHours(1);
+
     private final BomBaseClient client;
+    private volatile Map<PackageURL, Optional<PackageMetadata>> prefetched = Map.of();
 
     public BomBaseKnowledgeBase(URI serverUri) {
         this(new BomBaseClient(serverUri));
@@ -22,10 +34,45 @@ public class BomBaseKnowledgeBase extends KnowledgeBase {
         this.client = client;
     }
 
+    /**
+     * Keeps retrieved package metadata in a persistent cache to avoid repeated lookups in later runs.
+     *
+     * @param directory  location of the cache files
+     * @param timeToLive maximum age of cached metadata
+     * @param maxEntries maximum number of cached packages
+     */
+    public BomBaseKnowledgeBase setCache(Path directory, Duration timeToLive, int maxEntries) {
+        final var notFoundTimeToLive = (timeToLive.compareTo(NOT_FOUND_TIME_TO_LIVE) < 0) ? timeToLive : NOT_FOUND_TIME_TO_LIVE;
+        client.setCache(new MetadataCache(directory)
+                .setTimeToLive(timeToLive)
+                .setNotFoundTimeToLive(notFoundTimeToLive)
+                .setMaxEntries(maxEntries));
+        return this;
+    }
+
+    /**
+     * Looks up multiple packages in a single request, if supported by the server.
+     *
+     * @param batchSize maximum number of packages per request (1 to disable batched lookups)
+     */
+    public BomBaseKnowledgeBase setBatchSize(int batchSize) {
+        client.setBatchSize(batchSize);
+        return this;
+    }
+
     @Override
-    public boolean enhance(Package pkg) {
-        return pkg.getPurl().flatMap(client::readPackage)
-                .map(meta -> {
+    protected void prepare(List<Package> packages) {
+        final var purls = packages.stream()
+                .map(Package::getPurl)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+        prefetched = client.readPackages(purls);
+    }
+
+    @Override
+    protected Optional<Runnable> lookup(Package pkg) {
+        return pkg.getPurl().flatMap(this::readPackage)
+                .map(meta -> () -> {
                     meta.getTitle().ifPresent(pkg::setSummary);
                     meta.getDescription().ifPresent(pkg::setDescription);
                     meta.getHomePage().ifPresent(pkg::setHomePage);
@@ -35,7 +82,12 @@ public class BomBaseKnowledgeBase extends KnowledgeBase {
                     meta.getSha256().ifPresent(hash -> pkg.addHash("SHA256", hash));
                     meta.getDeclaredLicense().map(LicenseParser::parse).ifPresent(pkg::setDeclaredLicense);
                     meta.getDetectedLicenses().stream().map(LicenseParser::parse).forEach(pkg::addDetectedLicense);
-                    return meta;
-                }).isPresent();
+                });
+    }
+
+    private Optional<PackageMetadata> readPackage(PackageURL purl) {
+        final @NullOr Optional<PackageMetadata> meta = prefetched.get(purl);
+        //noinspection OptionalAssignedToNull
+        return (meta != null) ? meta : client.readPackage(purl);
     }
 }
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2020-2021, Koninklijke Philips N.V., https://www.philips.com
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.philips.research.spdxbuilder.persistence.bom_base;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import pl.tlinkowski.annotation.basic.NullOr;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Persistent file-based cache of BOM-base package metadata, keyed by canonical package URL.
+ * Entries expire after a time-to-live, with a separate (shorter) time-to-live for packages that were not found.
+ * When the maximum number of entries is exceeded, the least recently used entries are evicted.
+ */
+class MetadataCache {
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.NON_PRIVATE);
+    private static final String EXTENSION = ".json";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Path directory;
+    private final Clock clock;
+    private final Map<String, Path> index = new LinkedHashMap<>(16, 0.75f, true);
+    private Duration timeToLive = Duration.ofDays(1);
+    private Duration notFoundTimeToLive = Duration.ofHours(1);
+    private int maxEntries = 100_000;
+
+    MetadataCache(Path directory) {
+        this(directory, Clock.systemUTC());
+    }
+
+    MetadataCache(Path directory, Clock clock) {
+        this.directory = directory;
+        this.clock = clock;
+        loadIndex();
+    }
+
+    private void loadIndex() {
+        try {
+            Files.createDirectories(directory);
+            try (final var files = Files.list(directory)) {
+                files.filter(path -> path.getFileName().toString().endsWith(EXTENSION))
+                        .collect(Collectors.toMap(path -> path, this::lastAccess))
+                        .entrySet().stream()
+                        .sorted(Map.Entry.comparingByValue(Comparator.naturalOrder()))
+                        .forEach(entry -> index.put(keyOf(entry.getKey()), entry.getKey()));
+            }
+        } catch (IOException e) {
+            throw new BomBaseException("Failed to open metadata cache in " + directory + ": " + e.getMessage());
+        }
+    }
+
+    private FileTime lastAccess(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * @param timeToLive maximum age of a cached package metadata entry
+     */
+    MetadataCache setTimeToLive(Duration timeToLive) {
+        this.timeToLive = positive(timeToLive);
+        return this;
+    }
+
+    /**
+     * @param timeToLive maximum age of a cached "not found" entry
+     */
+    MetadataCache setNotFoundTimeToLive(Duration timeToLive) {
+        this.notFoundTimeToLive = positive(timeToLive);
+        return this;
+    }
+
+    private Duration positive(Duration timeToLive) {
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("Cache time to live must be positive, but was " + timeToLive);
+        }
+        return timeToLive;
+    }
+
+    /**
+     * @param maxEntries maximum number of entries to retain
+     */
+    MetadataCache setMaxEntries(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1, but was " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        return this;
+    }
+
+    /**
+     * @param purl canonical package URL
+     * @return cached entry, or empty if no valid entry exists
+     */
+    Optional<Entry> get(String purl) {
+        final var key = hash(purl);
+        final Path path;
+        synchronized (this) {
+            path = index.get(key);
+        }
+        if (path == null) {
+            return Optional.empty();
+        }
+
+        try {
+            final var entry = MAPPER.readValue(path.toFile(), Entry.class);
+            if (!purl.equals(entry.purl) || isExpired(entry)) {
+                remove(key);
+                return Optional.empty();
+            }
+            Files.setLastModifiedTime(path, FileTime.fromMillis(clock.millis()));
+            return Optional.of(entry);
+        } catch (IOException e) {
+            remove(key);
+            return Optional.empty();
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        final var ttl = (entry.attributes != null) ? timeToLive : notFoundTimeToLive;
+        return clock.millis() - entry.storedAt > ttl.toMillis();
+    }
+
+    /**
+     * Stores the result of a metadata lookup.
+     *
+     * @param purl canonical package URL
+     * @param meta metadata, or null if the package is unknown
+     */
+    void put(String purl, BomBaseApi.@NullOr PackageJson meta) {
+        final var key = hash(purl);
+        final var path = directory.resolve(key + EXTENSION);
+        final var entry = new Entry();
+        entry.purl = purl;
+        entry.storedAt = clock.millis();
+        entry.attributes = (meta != null) ? meta.attributes : null;
+
+        try {
+            final var temp = Files.createTempFile(directory, key, ".tmp");
+            MAPPER.writeValue(temp.toFile(), entry);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("WARNING: Failed to cache metadata for " + purl + ": " + e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            index.put(key, path);
+            evict();
+        }
+    }
+
+    private void evict() {
+        final var iterator = index.entrySet().iterator();
+        while (index.size() > maxEntries && iterator.hasNext()) {
+            final var eldest = iterator.next();
+            iterator.remove();
+            delete(eldest.getValue());
+        }
+    }
+
+    private synchronized void remove(String key) {
+        final @NullOr Path path = index.remove(key);
+        if (path != null) {
+            delete(path);
+        }
+    }
+
+    private void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.err.println("WARNING: Failed to remove cached metadata file " + path);
+        }
+    }
+
+    synchronized int size() {
+        return index.size();
+    }
+
+    private String keyOf(Path path) {
+        final var name = path.getFileName().toString();
+        return name.substring(0, name.length() - EXTENSION.length());
+    }
+
+    private String hash(String purl) {
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256").digest(purl.getBytes(StandardCharsets.UTF_8));
+            final var hex = new char[2 * digest.length];
+            for (var i = 0; i < digest.length; i++) {
+                hex[2 * i] = HEX_DIGITS[(digest[i] >> 4) & 0x0F];
+                hex[2 * i + 1] = HEX_DIGITS[digest[i] & 0x0F];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not supported", e);
+        }
+    }
+
+    /**
+     * Persisted lookup result.
+     */
+    static class Entry {
+        String purl = "";
+        long storedAt;
+        @NullOr Map<String, Object> attributes;
+
+        /**
+         * @return cached metadata, or empty if the package was not known to BOM-base
+         */
+        Optional<PackageMetadata> getMetadata() {
+            if (attributes == null) {
+                return Optional.empty();
+            }
+            final var meta = new BomBaseApi.PackageJson();
+            meta.attributes = attributes;
+            return Optional.of(meta);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+/*
+ * Copyright (c) 2020-2021, Koninklijke Philips N.V., https://www.philips.com
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.philips.research.spdxbuilder.persistence.cyclonedx;
+
+import com.philips.research.spdxbuilder.core.BusinessException;
+
+public class CycloneDxException extends BusinessException {
+    public CycloneDxException(String message) {
+        super(message);
+    }
+}
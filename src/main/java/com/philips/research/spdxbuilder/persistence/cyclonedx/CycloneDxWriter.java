@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2020-2021, Koninklijke Philips N.V., https://www.philips.com
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.philips.research.spdxbuilder.persistence.cyclonedx;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.philips.research.spdxbuilder.core.BomProcessor;
+import com.philips.research.spdxbuilder.core.domain.BillOfMaterials;
+import com.philips.research.spdxbuilder.core.domain.License;
+import com.philips.research.spdxbuilder.core.domain.LicenseDictionary;
+import com.philips.research.spdxbuilder.core.domain.Package;
+import com.philips.research.spdxbuilder.core.domain.Party;
+import com.philips.research.spdxbuilder.core.domain.Relation;
+import pl.tlinkowski.annotation.basic.NullOr;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Converts a bill-of-materials to a CycloneDX JSON file.
+ * The document is streamed directly to the output, without building an intermediate JSON tree.
+ */
+public class CycloneDxWriter implements BomProcessor, AutoCloseable {
+    private static final JsonFactory FACTORY = new JsonFactory();
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'")
+            .withZone(ZoneId.of("UTC"));
+    private static final Map<String, String> HASH_ALGORITHMS = Map.of(
+            "MD5", "MD5",
+            "SHA1", "SHA-1",
+            "SHA256", "SHA-256",
+            "SHA384", "SHA-384",
+            "SHA512", "SHA-512");
+    private static final String LICENSE_REF = "LicenseRef-";
+
+    private final OutputStream stream;
+    private final Map<Package, String> references = new LinkedHashMap<>();
+
+    private int nextId = 1;
+
+    public CycloneDxWriter(OutputStream stream) {
+        this.stream = stream;
+    }
+
+    @Override
+    public void process(BillOfMaterials bom) {
+        try (final var json = FACTORY.createGenerator(stream, JsonEncoding.UTF8).useDefaultPrettyPrinter()) {
+            json.writeStartObject();
+            json.writeStringField("bomFormat", "CycloneDX");
+            json.writeStringField("specVersion", "1.4");
+            json.writeStringField("serialNumber", "urn:uuid:" + UUID.randomUUID());
+            json.writeNumberField("version", 1);
+            writeMetadata(json, bom);
+            generateReferences(bom);
+            writeComponents(json, bom);
+            writeDependencies(json, bom);
+            json.writeEndObject();
+        } catch (IOException | DateTimeException e) {
+            throw new CycloneDxException("Could not write CycloneDX file: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.stream.close();
+    }
+
+    private void generateReferences(BillOfMaterials bom) {
+        bom.getPackages().forEach(this::referenceFor);
+    }
+
+    private void writeMetadata(JsonGenerator json, BillOfMaterials bom) throws IOException, DateTimeException {
+        json.writeObjectFieldStart("metadata");
+        json.writeStringField("timestamp", DATE_TIME_FORMAT.format(bom.getCreatedAt().isPresent() ? bom.getCreatedAt().get() : Instant.now()));
+        json.writeArrayFieldStart("tools");
+        json.writeStartObject();
+        final var application = this.getClass().getPackage().getImplementationTitle();
+        final var version = this.getClass().getPackage().getImplementationVersion();
+        writeOptionalField(json, "name", application);
+        writeOptionalField(json, "version", version);
+        json.writeEndObject();
+        json.writeEndArray();
+        json.writeObjectFieldStart("component");
+        json.writeStringField("type", "application");
+        json.writeStringField("name", bom.getTitle());
+        json.writeEndObject();
+        final var organization = bom.getOrganization().filter(party -> party.getType() != Party.Type.NONE);
+        if (organization.isPresent()) {
+            writeEntity(json, "supplier", organization.get());
+        }
+        json.writeEndObject();
+    }
+
+    private void writeComponents(JsonGenerator json, BillOfMaterials bom) throws IOException {
+        json.writeArrayFieldStart("components");
+        for (Package pkg : references.keySet()) {
+            writeComponent(json, pkg, bom);
+        }
+        json.writeEndArray();
+    }
+
+    private void writeComponent(JsonGenerator json, Package pkg, BillOfMaterials bom) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("type", "library");
+        json.writeStringField("bom-ref", referenceFor(pkg));
+        final var supplier = pkg.isInternal() ? bom.getOrganization() : pkg.getSupplier();
+        if (supplier.isPresent() && supplier.get().getType() != Party.Type.NONE) {
+            writeEntity(json, "supplier", supplier.get());
+        }
+        if (pkg.getOriginator().isPresent()) {
+            json.writeStringField("author", pkg.getOriginator().get().getName());
+        }
+        writeOptionalField(json, "group", pkg.getNamespace());
+        json.writeStringField("name", pkg.getName());
+        writeOptionalField(json, "version", pkg.getVersion());
+        writeOptionalField(json, "description", pkg.getDescription().or(pkg::getSummary).orElse(null));
+        writeHashes(json, pkg);
+        writeLicenses(json, pkg);
+        writeOptionalField(json, "copyright", pkg.getCopyright().orElse(null));
+        if (!pkg.isInternal() && pkg.getPurl().isPresent()) {
+            json.writeStringField("purl", pkg.getPurl().get().canonicalize());
+        }
+        writeExternalReferences(json, pkg);
+        json.writeEndObject();
+    }
+
+    private void writeHashes(JsonGenerator json, Package pkg) throws IOException {
+        var started = false;
+        for (Map.Entry<String, String> entry : pkg.getHashes().entrySet()) {
+            final @NullOr String algorithm = HASH_ALGORITHMS.get(entry.getKey().replace("-", "").toUpperCase(Locale.ROOT));
+            if (algorithm != null) {
+                if (!started) {
+                    json.writeArrayFieldStart("hashes");
+                    started = true;
+                }
+                json.writeStartObject();
+                json.writeStringField("alg", algorithm);
+                json.writeStringField("content", entry.getValue().toLowerCase(Locale.ROOT));
+                json.writeEndObject();
+            }
+        }
+        if (started) {
+            json.writeEndArray();
+        }
+    }
+
+    /**
+     * Writes the concluded (or else declared) license, either as a single license or (for a combination of
+     * licenses or a license with an exception) as an SPDX expression.
+     */
+    private void writeLicenses(JsonGenerator json, Package pkg) throws IOException {
+        final var license = pkg.getConcludedLicense().or(pkg::getDeclaredLicense)
+                .filter(License::isDefined);
+        if (license.isEmpty()) {
+            return;
+        }
+
+        final var identifier = license.get().getSingleIdentifier();
+        json.writeArrayFieldStart("licenses");
+        json.writeStartObject();
+        if (identifier.isEmpty()) {
+            json.writeStringField("expression", license.get().toString());
+        } else {
+            json.writeObjectFieldStart("license");
+            if (identifier.get().startsWith(LICENSE_REF)) {
+                json.writeStringField("name", LicenseDictionary.getInstance().expand(license.get()));
+            } else {
+                json.writeStringField("id", identifier.get());
+            }
+            json.writeEndObject();
+        }
+        json.writeEndObject();
+        json.writeEndArray();
+    }
+
+    private void writeExternalReferences(JsonGenerator json, Package pkg) throws IOException {
+        if (pkg.getHomePage().isEmpty() && pkg.getDownloadLocation().isEmpty()) {
+            return;
+        }
+        json.writeArrayFieldStart("externalReferences");
+        if (pkg.getHomePage().isPresent()) {
+            writeExternalReference(json, "website", pkg.getHomePage().get().toString());
+        }
+        if (pkg.getDownloadLocation().isPresent()) {
+            writeExternalReference(json, "distribution", pkg.getDownloadLocation().get().toString());
+        }
+        json.writeEndArray();
+    }
+
+    private void writeExternalReference(JsonGenerator json, String type, String url) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("type", type);
+        json.writeStringField("url", url);
+        json.writeEndObject();
+    }
+
+    /**
+     * Writes the dependency graph. CycloneDX only expresses "depends on" relations, so every relation
+     * except the pedigree relation "descendant of" is listed as a dependency of its source package.
+     */
+    private void writeDependencies(JsonGenerator json, BillOfMaterials bom) throws IOException {
+        json.writeArrayFieldStart("dependencies");
+        for (Package pkg : references.keySet()) {
+            json.writeStartObject();
+            json.writeStringField("ref", referenceFor(pkg));
+            json.writeArrayFieldStart("dependsOn");
+            final var written = new HashSet<String>();
+            for (Relation rel : bom.getRelationsFrom(pkg)) {
+                final var ref = referenceFor(rel.getTo());
+                if (rel.getType() != Relation.Type.DESCENDANT_OF && written.add(ref)) {
+                    json.writeString(ref);
+                }
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    private void writeEntity(JsonGenerator json, String field, Party party) throws IOException {
+        json.writeObjectFieldStart(field);
+        json.writeStringField("name", party.getName());
+        json.writeEndObject();
+    }
+
+    private void writeOptionalField(JsonGenerator json, String field, @NullOr String value) throws IOException {
+        if (value != null && !value.isBlank()) {
+            json.writeStringField(field, value);
+        }
+    }
+
+    private String referenceFor(Package pkg) {
+        return references.computeIfAbsent(pkg, (o) -> "pkg-" + nextId++);
+    }
+}
@@ -29,14 +29,14 @@ public class LicenseKnowledgeBase extends KnowledgeBase {
     }
 
     @Override
-    public boolean enhance(Package pkg) {
+    protected Optional<Runnable> lookup(Package pkg) {
         final var purl = pkg.getPurl();
         if (purl.isEmpty()) {
-            return false;
+            return Optional.empty();
         }
 
         return detectLicense(pkg)
-                .map(l -> {
+                .map(l -> () -> {
                     final var scanned = LicenseParser.parse(l.getLicense());
                     final var declared = pkg.getDeclaredLicense().orElse(scanned);
                     pkg.addDetectedLicense(scanned);
@@ -51,8 +51,7 @@ public class LicenseKnowledgeBase extends KnowledgeBase {
                             licenseClient.contest(pkg.getPurl().get(), declaredText);
                         }
                     }
-                    return l;
-                }).isPresent();
+                });
     }
 
     private Optional<LicenseScannerClient.LicenseInfo> detectLicense(Package pkg) {
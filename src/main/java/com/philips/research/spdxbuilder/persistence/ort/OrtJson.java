@@ -94,9 +94,7 @@ class ResultJson {
     }
 
     void removeProjects(Set<PathMatcher> excludedPaths) {
-        projects.removeIf(p -> p.definitionFilePath == null
-                || excludedPaths.stream()
-                .anyMatch(glob -> glob.matches(p.definitionFilePath.toPath())));
+        projects.removeIf(p -> p.isExcludedBy(excludedPaths));
     }
 
     public void keepProjects(Set<String> projectIds) {
@@ -188,6 +186,11 @@ class ProjectJson extends PackageJson {
     List<DependencyJson> scopes = new ArrayList<>();
     @NullOr File definitionFilePath;
 
+    boolean isExcludedBy(Set<PathMatcher> excludedPaths) {
+        final var path = definitionFilePath;
+        return path == null || excludedPaths.stream().anyMatch(glob -> glob.matches(path.toPath()));
+    }
+
     public void removeScopes(Set<PathMatcher> excludedScopes) {
         scopes.removeIf(scope -> excludedScopes.stream()
                 .anyMatch(glob -> glob.matches(Path.of(scope.name))));
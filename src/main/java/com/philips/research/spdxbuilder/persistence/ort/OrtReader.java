@@ -7,6 +7,8 @@ package com.philips.research.spdxbuilder.persistence.ort;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
@@ -17,24 +19,30 @@ import com.philips.research.spdxbuilder.core.domain.BillOfMaterials;
 import com.philips.research.spdxbuilder.core.domain.Package;
 import pl.tlinkowski.annotation.basic.NullOr;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
 import java.util.*;
+import java.util.zip.GZIPInputStream;
 
 /**
- * OSS Review Toolkit (ORT) YAML file reader.
+ * OSS Review Toolkit (ORT) analyzer result reader.
+ * Accepts YAML and JSON files, which can optionally be gzip-compressed.
  *
  * @see <a href="https://github.com/oss-review-toolkit/ort">OSS Review Toolkit</a>
  */
 public class OrtReader implements BomReader {
     private static final FileSystem FILE_SYSTEM = FileSystems.getDefault();
-    private static final ObjectMapper MAPPER = new ObjectMapper(new YAMLFactory())
-            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
-            .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.NON_PRIVATE)
-            .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+    private static final ObjectMapper YAML_MAPPER = configure(new ObjectMapper(new YAMLFactory()));
+    private static final ObjectMapper JSON_MAPPER = configure(new ObjectMapper());
+    private static final byte[] GZIP_MAGIC = {(byte) 0x1f, (byte) 0x8b};
+    private static final byte[] ZSTD_MAGIC = {(byte) 0x28, (byte) 0xb5, (byte) 0x2f, (byte) 0xfd};
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     private final File file;
     private final Map<String, @NullOr URI> projectPackages = new HashMap<>();
@@ -44,6 +52,13 @@ public class OrtReader implements BomReader {
         this.file = file;
     }
 
+    private static ObjectMapper configure(ObjectMapper mapper) {
+        return mapper
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.NON_PRIVATE)
+                .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+    }
+
     /**
      * Marks a project for import with an (optional) package alias
      *
@@ -71,7 +86,7 @@ public class OrtReader implements BomReader {
     public void read(BillOfMaterials bom) {
         System.out.println("Reading ORT file '" + file + "'...");
         try {
-            final var yaml = MAPPER.readValue(file, OrtJson.class);
+            final var yaml = parse(file);
             final var dictionary = new HashMap<String, Package>();
 
             if (yaml.analyzer == null || yaml.analyzer.result == null) {
@@ -82,8 +97,7 @@ public class OrtReader implements BomReader {
             }
             final var result = yaml.analyzer.result;
 
-            printProjects(result, projectPackages.keySet());
-            cleanupYaml(yaml, projectPackages, projectExcludes);
+            cleanupYaml(yaml);
             registerProjects(result, bom, dictionary);
             registerPackages(result, bom, dictionary);
             registerRelations(result, bom, dictionary);
@@ -95,35 +109,195 @@ public class OrtReader implements BomReader {
         }
     }
 
-    private void printProjects(ResultJson result, Set<String> projectIds) {
-        System.out.println("Detected " + result.projects.size() + " project(s):");
-        result.projects.forEach(project -> {
-            final var tick = projectIds.contains(project.id) ? "+" : "-";
+    /**
+     * Streams the ORT file, only binding the sections that contribute to the bill-of-materials.
+     * Unselected projects, excluded scopes and unreferenced packages are dropped while parsing.
+     */
+    private OrtJson parse(File file) throws IOException {
+        final var yaml = new OrtJson();
+        try (final var parser = createParser(file)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new OrtReaderException("ORT file does not contain an analyzer result");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final var field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "repository":
+                        yaml.repository = parser.readValueAs(RepositoryJson.class);
+                        break;
+                    case "analyzer":
+                        yaml.analyzer = parseAnalyzer(parser, yaml);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+        return yaml;
+    }
+
+    /**
+     * Opens the file as a YAML or JSON stream, transparently decompressing gzip-compressed files.
+     * The format is derived from the file name, or else from its content.
+     */
+    private JsonParser createParser(File file) throws IOException {
+        var stream = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+        try {
+            if (startsWith(stream, ZSTD_MAGIC)) {
+                throw new OrtReaderException("Zstandard-compressed ORT files are not supported; use gzip instead");
+            }
+            var name = file.getName().toLowerCase();
+            if (startsWith(stream, GZIP_MAGIC)) {
+                stream = new BufferedInputStream(new GZIPInputStream(stream, BUFFER_SIZE), BUFFER_SIZE);
+                name = name.endsWith(".gz") ? name.substring(0, name.length() - 3) : name;
+            }
+            final var mapper = isJson(name, stream) ? JSON_MAPPER : YAML_MAPPER;
+            return mapper.getFactory().createParser(stream);
+        } catch (IOException | RuntimeException e) {
+            stream.close();
+            throw e;
+        }
+    }
+
+    private boolean startsWith(BufferedInputStream stream, byte[] magic) throws IOException {
+        stream.mark(magic.length);
+        final var header = stream.readNBytes(magic.length);
+        stream.reset();
+        return Arrays.equals(header, magic);
+    }
+
+    private boolean isJson(String name, BufferedInputStream stream) throws IOException {
+        if (name.endsWith(".json")) {
+            return true;
+        }
+        if (name.endsWith(".yml") || name.endsWith(".yaml")) {
+            return false;
+        }
+        stream.mark(BUFFER_SIZE);
+        try {
+            int ch;
+            do {
+                ch = stream.read();
+            } while (ch >= 0 && Character.isWhitespace(ch));
+            return ch == '{';
+        } finally {
+            stream.reset();
+        }
+    }
+
+    private @NullOr AnalyzerJson parseAnalyzer(JsonParser parser, OrtJson yaml) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        final var analyzer = new AnalyzerJson();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final var field = parser.getCurrentName();
+            parser.nextToken();
+            if ("result".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+                analyzer.result = parseResult(parser, yaml);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return analyzer;
+    }
+
+    private ResultJson parseResult(JsonParser parser, OrtJson yaml) throws IOException {
+        final var result = new ResultJson();
+        @NullOr Set<String> referenced = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final var field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "projects":
+                    parseProjects(parser, yaml, result);
+                    referenced = referencedPackages(result);
+                    break;
+                case "packages":
+                    parsePackages(parser, result, referenced);
+                    break;
+                case "has_issues":
+                    result.hasIssues = parser.getValueAsBoolean();
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return result;
+    }
+
+    private void parseProjects(JsonParser parser, OrtJson yaml, ResultJson result) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        final var detected = new ArrayList<String>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            final var project = parser.readValueAs(ProjectJson.class);
+            final var selected = projectPackages.containsKey(project.id);
             final var from = (project.definitionFilePath != null) ? " from '" + project.definitionFilePath + "'" : "";
-            System.out.println(tick + " '" + project.id + "'" + from);
-        });
+            detected.add((selected ? "+" : "-") + " '" + project.id + "'" + from);
+            if (!selected) {
+                continue;
+            }
+            if (yaml.repository != null) {
+                if (project.isExcludedBy(yaml.repository.getExcludePaths())) {
+                    continue;
+                }
+                project.removeScopes(scopeExcludes(yaml.repository, project));
+            }
+            result.projects.add(project);
+        }
+        System.out.println("Detected " + detected.size() + " project(s):");
+        detected.forEach(System.out::println);
+    }
+
+    private Set<String> referencedPackages(ResultJson result) {
+        final var referenced = new HashMap<String, Package>();
+        result.projects.forEach(p -> p.scopes.forEach(scope -> scope.putAllDependencies(referenced)));
+        return referenced.keySet();
     }
 
-    private void cleanupYaml(OrtJson yaml, Map<String, URI> projectPackages, Map<String, List<String>> projectExcludes) {
-        if (yaml.repository == null) {
+    /**
+     * Binds the packages, retaining only the referenced packages if the projects are already known.
+     */
+    private void parsePackages(JsonParser parser, ResultJson result, @NullOr Set<String> referenced) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
             return;
         }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            final var wrapper = parser.readValueAs(PackageWrapperJson.class);
+            if (wrapper.pkg != null && (referenced == null || referenced.contains(wrapper.pkg.id))) {
+                result.packages.add(wrapper);
+            }
+        }
+    }
+
+    private void cleanupYaml(OrtJson yaml) {
         //noinspection ConstantConditions
         final var result = yaml.analyzer.result;
-        final var excludedPaths = yaml.repository.getExcludePaths();
-        final var excludedScopes = yaml.repository.getExcludeScopes();
-
         assert result != null;
-        result.removeProjects(excludedPaths);
+
+        final var repository = yaml.repository;
+        if (repository != null) {
+            result.removeProjects(repository.getExcludePaths());
+        }
         result.keepProjects(projectPackages.keySet());
         result.updateProjectPackages(projectPackages);
-        result.projects.forEach(p -> {
-            final var globs = new HashSet<>(excludedScopes);
-            projectExcludes.getOrDefault(p.id, List.of()).stream()
-                    .map(pattern -> FILE_SYSTEM.getPathMatcher("glob:" + pattern))
-                    .forEach(globs::add);
-            p.removeScopes(globs);
-        });
+        if (repository != null) {
+            result.projects.forEach(p -> p.removeScopes(scopeExcludes(repository, p)));
+        }
+    }
+
+    private Set<PathMatcher> scopeExcludes(RepositoryJson repository, ProjectJson project) {
+        final var globs = new HashSet<>(repository.getExcludeScopes());
+        projectExcludes.getOrDefault(project.id, List.of()).stream()
+                .map(pattern -> FILE_SYSTEM.getPathMatcher("glob:" + pattern))
+                .forEach(globs::add);
+        return globs;
     }
 
     private void registerProjects(ResultJson result, BillOfMaterials bom, HashMap<String, Package> dictionary) {
@@ -133,9 +307,8 @@ public class OrtReader implements BomReader {
             }
             System.out.println();
             System.out.println("Adding project '" + p.id + "':");
-            var project = p.createPackage();
+            final var project = addPackage(bom, p.createPackage());
             dictionary.put(p.id, project);
-            bom.addPackage(project);
             p.scopes.forEach(scope -> {
                 System.out.println("+ Adding scope '" + scope.name + "'");
                 scope.putAllDependencies(dictionary);
@@ -150,12 +323,20 @@ public class OrtReader implements BomReader {
                     if (pkg.id == null) {
                         return;
                     }
-                    final var created = pkg.createPackage();
-                    dictionary.put(pkg.id, created);
-                    bom.addPackage(created);
+                    dictionary.put(pkg.id, addPackage(bom, pkg.createPackage()));
                 });
     }
 
+    /**
+     * @return the added package, or the package that was added before with the same package URL (or the same
+     * namespace, name and version if the package has no package URL)
+     */
+    private Package addPackage(BillOfMaterials bom, Package pkg) {
+        return pkg.getPurl()
+                .map(purl -> bom.addPackageIfAbsent(purl, x -> pkg))
+                .orElseGet(() -> bom.addPackageIfAbsent(pkg.getNamespace(), pkg.getName(), pkg.getVersion(), () -> pkg));
+    }
+
     private void registerRelations(ResultJson result, BillOfMaterials bom, HashMap<String, Package> dictionary) {
         result.projects.forEach(p -> {
             final var project = dictionary.get(p.id);
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2020-2021, Koninklijke Philips N.V., https://www.philips.com
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.philips.research.spdxbuilder.persistence.spdx;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.philips.research.spdxbuilder.core.BomProcessor;
+import com.philips.research.spdxbuilder.core.domain.BillOfMaterials;
+import com.philips.research.spdxbuilder.core.domain.LicenseDictionary;
+import com.philips.research.spdxbuilder.core.domain.Package;
+import com.philips.research.spdxbuilder.core.domain.Relation;
+import pl.tlinkowski.annotation.basic.NullOr;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Converts a bill-of-materials to an SPDX JSON file.
+ * The document is streamed directly to the output, without building an intermediate JSON tree.
+ */
+public class SpdxJsonWriter implements BomProcessor, AutoCloseable {
+    private static final JsonFactory FACTORY = new JsonFactory();
+    @SuppressWarnings("SpellCheckingInspection")
+    private static final String NO_ASSERTION = "NOASSERTION";
+    private static final String NONE = "NONE";
+
+    private final OutputStream stream;
+    private final Map<Package, SpdxRef> identifiers = new LinkedHashMap<>();
+
+    private int nextId = 1;
+
+    public SpdxJsonWriter(OutputStream stream) {
+        this.stream = stream;
+    }
+
+    @Override
+    public void process(BillOfMaterials bom) {
+        try (final var json = FACTORY.createGenerator(stream, JsonEncoding.UTF8).useDefaultPrettyPrinter()) {
+            json.writeStartObject();
+            writeDocumentInformation(json, bom);
+            generatePackageIdentifiers(bom);
+            writePackages(json, bom);
+            writeRelationships(json, bom);
+            writeCustomLicenses(json);
+            json.writeEndObject();
+        } catch (IOException | DateTimeException e) {
+            throw new SpdxException("Could not write SPDX JSON file: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.stream.close();
+    }
+
+    private void generatePackageIdentifiers(BillOfMaterials bom) {
+        bom.getPackages().forEach(this::identifierFor);
+    }
+
+    private void writeDocumentInformation(JsonGenerator json, BillOfMaterials bom) throws IOException, DateTimeException {
+        json.writeStringField("spdxVersion", "SPDX-2.2");
+        json.writeStringField("dataLicense", "CC0-1.0");
+        json.writeStringField("SPDXID", new SpdxRef(bom.getIdentifier().orElse("DOCUMENT")).toString());
+        json.writeStringField("name", bom.getTitle());
+        json.writeStringField("documentNamespace", bom.getNamespace()
+                .orElseGet(() -> URI.create("https://spdx.org/spdxdocs"))
+                .resolve(UUID.randomUUID().toString()).toString());
+
+        json.writeObjectFieldStart("creationInfo");
+        json.writeArrayFieldStart("creators");
+        final @NullOr SpdxParty organization = SpdxParty.from(bom.getOrganization());
+        if (organization != null) {
+            json.writeString(organization.toString());
+        }
+        final var application = this.getClass().getPackage().getImplementationTitle();
+        final var version = this.getClass().getPackage().getImplementationVersion();
+        json.writeString(SpdxParty.tool(application, version).toString());
+        json.writeEndArray();
+        json.writeStringField("created", SpdxWriter.DATE_TIME_FORMAT.format(bom.getCreatedAt().isPresent() ? bom.getCreatedAt().get() : Instant.now()));
+        json.writeStringField("licenseListVersion", LicenseDictionary.getInstance().getVersion());
+        json.writeStringField("comment", "This SPDX file was generated by " + application + ".");
+        json.writeEndObject();
+        optionallyWriteField(json, "comment", bom.getComment());
+    }
+
+    private void writePackages(JsonGenerator json, BillOfMaterials bom) throws IOException {
+        json.writeArrayFieldStart("packages");
+        for (Package pkg : identifiers.keySet()) {
+            writePackage(json, pkg, bom);
+        }
+        json.writeEndArray();
+    }
+
+    private void writePackage(JsonGenerator json, Package pkg, BillOfMaterials bom) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("name", pkg.getFullName());
+        json.writeStringField("SPDXID", identifierFor(pkg).toString());
+        writeField(json, "versionInfo", pkg.getVersion());
+        optionallyWriteField(json, "packageFileName", pkg.getFilename());
+        optionallyWriteField(json, "summary", pkg.getSummary());
+        optionallyWriteField(json, "description", pkg.getDescription());
+        writeField(json, "homepage", pkg.getHomePage());
+        if (pkg.getAttribution().isPresent()) {
+            json.writeArrayFieldStart("attributionTexts");
+            json.writeString(pkg.getAttribution().get());
+            json.writeEndArray();
+        }
+        if (pkg.isInternal()) {
+            optionallyWriteField(json, "supplier", bom.getOrganization().map(SpdxParty::from));
+        } else {
+            if (pkg.getPurl().isPresent()) {
+                json.writeArrayFieldStart("externalRefs");
+                json.writeStartObject();
+                json.writeStringField("referenceCategory", "PACKAGE-MANAGER");
+                json.writeStringField("referenceType", "purl");
+                json.writeStringField("referenceLocator", pkg.getPurl().get().canonicalize());
+                json.writeEndObject();
+                json.writeEndArray();
+            }
+            writeField(json, "supplier", pkg.getSupplier().map(SpdxParty::from));
+        }
+        optionallyWriteField(json, "originator", pkg.getOriginator().map(SpdxParty::from));
+        writeField(json, "downloadLocation", pkg.getDownloadLocation());
+        writeChecksums(json, pkg);
+        writeField(json, "licenseConcluded", pkg.getConcludedLicense());
+        writeField(json, "licenseDeclared", pkg.getDeclaredLicense());
+        if (pkg.getDeclaredLicense().isEmpty() && pkg.getConcludedLicense().isEmpty()) {
+            System.err.println("WARNING: No license declared for package " + pkg);
+        }
+        if (!pkg.getDetectedLicenses().isEmpty()) {
+            json.writeArrayFieldStart("licenseInfoFromFiles");
+            for (var license : pkg.getDetectedLicenses()) {
+                json.writeString(license.toString());
+            }
+            json.writeEndArray();
+        }
+        json.writeBooleanField("filesAnalyzed", !pkg.getDetectedLicenses().isEmpty());
+        writeField(json, "copyrightText", pkg.getCopyright());
+        json.writeEndObject();
+    }
+
+    private void writeChecksums(JsonGenerator json, Package pkg) throws IOException {
+        var started = false;
+        for (Map.Entry<String, String> entry : pkg.getHashes().entrySet()) {
+            final var algorithm = SpdxWriter.checksumAlgorithm(entry.getKey());
+            if (algorithm != null) {
+                if (!started) {
+                    json.writeArrayFieldStart("checksums");
+                    started = true;
+                }
+                json.writeStartObject();
+                json.writeStringField("algorithm", algorithm);
+                json.writeStringField("checksumValue", entry.getValue().toLowerCase());
+                json.writeEndObject();
+            }
+        }
+        if (started) {
+            json.writeEndArray();
+        }
+    }
+
+    private void writeRelationships(JsonGenerator json, BillOfMaterials bom) throws IOException {
+        json.writeArrayFieldStart("relationships");
+        for (Package pkg : identifiers.keySet()) {
+            for (Relation rel : bom.getRelationsFrom(pkg)) {
+                final var from = identifierFor(rel.getFrom()).toString();
+                final var to = identifierFor(rel.getTo()).toString();
+                final var reversed = SpdxWriter.isReversed(rel.getType());
+                json.writeStartObject();
+                json.writeStringField("spdxElementId", reversed ? to : from);
+                json.writeStringField("relationshipType", SpdxWriter.relationshipType(rel.getType()));
+                json.writeStringField("relatedSpdxElement", reversed ? from : to);
+                json.writeEndObject();
+            }
+        }
+        json.writeEndArray();
+    }
+
+    private void writeCustomLicenses(JsonGenerator json) throws IOException {
+        final var dictionary = LicenseDictionary.getInstance().getCustomLicenses();
+        if (dictionary.isEmpty()) {
+            return;
+        }
+        final var keys = dictionary.keySet().stream().sorted().collect(Collectors.toList());
+        json.writeArrayFieldStart("hasExtractedLicensingInfos");
+        for (var key : keys) {
+            json.writeStartObject();
+            json.writeStringField("licenseId", key);
+            json.writeStringField("name", dictionary.get(key));
+            json.writeStringField("extractedText", dictionary.get(key));
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    /**
+     * Writes a field only if a value is present.
+     */
+    private void optionallyWriteField(JsonGenerator json, String field, @SuppressWarnings("OptionalUsedAsFieldOrParameterType") Optional<?> value) throws IOException {
+        if (value.isPresent()) {
+            writeField(json, field, value);
+        }
+    }
+
+    /**
+     * Writes a field with a value, converting a <code>null</code> or empty <code>Optional</code> to "NOASSERTION"
+     * and an empty string to "NONE".
+     */
+    private void writeField(JsonGenerator json, String field, @NullOr Object value) throws IOException {
+        if (value instanceof Optional) {
+            value = ((Optional<?>) value).orElse(null);
+        }
+        final var string = (value != null) ? value.toString() : NO_ASSERTION;
+        json.writeStringField(field, string.isBlank() ? NONE : string);
+    }
+
+    private SpdxRef identifierFor(Package pkg) {
+        return identifiers.computeIfAbsent(pkg, (o) -> new SpdxRef(Integer.toString(nextId++)));
+    }
+}
@@ -10,6 +10,7 @@ import com.philips.research.spdxbuilder.core.domain.BillOfMaterials;
 import com.philips.research.spdxbuilder.core.domain.LicenseDictionary;
 import com.philips.research.spdxbuilder.core.domain.Package;
 import com.philips.research.spdxbuilder.core.domain.Relation;
+import pl.tlinkowski.annotation.basic.NullOr;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -25,7 +26,7 @@ import java.util.stream.Collectors;
  * Converts a bill-of-materials to an SPDX file.
  */
 public class SpdxWriter implements BomProcessor, AutoCloseable {
-    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'")
+    static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'")
             .withZone(ZoneId.of("UTC"));
     private static final List<String> SUPPORTED_HASH_KEYS =
             List.of("SHA1", "SHA224", "SHA256", "SHA384", "SHA512", "MD2", "MD4", "MD5", "MD6");
@@ -46,7 +47,6 @@ public class SpdxWriter implements BomProcessor, AutoCloseable {
             generatePackageIdentifiers(bom);
             writePackages(doc, bom);
             writeCustomLicenses(doc);
-            System.out.println("Total: " + bom.getPackages().size() + " packages and " + bom.getRelations().size() + " relations");
         } catch (IOException | DateTimeException e) {
             throw new SpdxException("Could not write SPDX file: " + e.getMessage());
         }
@@ -109,10 +109,10 @@ public class SpdxWriter implements BomProcessor, AutoCloseable {
         doc.optionallyAddValue("PackageOriginator", pkg.getOriginator().map(SpdxParty::from));
         doc.addValue("PackageDownloadLocation", pkg.getDownloadLocation());
         for (Map.Entry<String, String> entry : pkg.getHashes().entrySet()) {
-            final var key = entry.getKey().replaceAll("-", "").toUpperCase();
-            if (SUPPORTED_HASH_KEYS.contains(key)) {
+            final var algorithm = checksumAlgorithm(entry.getKey());
+            if (algorithm != null) {
                 final var hex = entry.getValue().toLowerCase();
-                doc.addValue("PackageChecksum", key + ": " + hex);
+                doc.addValue("PackageChecksum", algorithm + ": " + hex);
             }
         }
         doc.addValue("PackageLicenseConcluded", pkg.getConcludedLicense());
@@ -130,36 +130,55 @@ public class SpdxWriter implements BomProcessor, AutoCloseable {
     }
 
     private void addPackageRelationships(TagValueDocument doc, Package pkg, BillOfMaterials bom) throws IOException {
-        for (Relation rel : bom.getRelations()) {
-            if (rel.getFrom() == pkg) {
-                String value = String.format(relationFormat(rel.getType()),
-                        identifierFor(rel.getFrom()),
-                        identifierFor(rel.getTo()));
-                doc.addValue("Relationship", value);
-            }
+        for (Relation rel : bom.getRelationsFrom(pkg)) {
+            final var from = identifierFor(rel.getFrom());
+            final var to = identifierFor(rel.getTo());
+            final var type = relationshipType(rel.getType());
+            final var value = isReversed(rel.getType())
+                    ? to + " " + type + " " + from
+                    : from + " " + type + " " + to;
+            doc.addValue("Relationship", value);
         }
     }
 
-    private String relationFormat(Relation.Type type) {
+    /**
+     * @return SPDX relationship type for the relation
+     */
+    static String relationshipType(Relation.Type type) {
         switch (type) {
             case DESCENDANT_OF:
-                return "%s DESCENDANT_OF %s";
+                return "DESCENDANT_OF";
             case DYNAMICALLY_LINKS:
-                return "%s DYNAMIC_LINK %s";
+                return "DYNAMIC_LINK";
             case STATICALLY_LINKS:
-                return "%s STATIC_LINK %s";
+                return "STATIC_LINK";
             case CONTAINS:
-                return "%s CONTAINS %s";
+                return "CONTAINS";
             case DEPENDS_ON:
-                return "%s DEPENDS_ON %s";
+                return "DEPENDS_ON";
             case DEVELOPED_USING:
-                return "%2$s DEV_DEPENDENCY_OF %1$s";
+                return "DEV_DEPENDENCY_OF";
             default:
                 System.out.println("WARNING: Unmapped relationship type: " + type);
-                return "%s DEPENDS_ON %s";
+                return "DEPENDS_ON";
         }
     }
 
+    /**
+     * @return true if the SPDX relationship is expressed from the target to the source of the relation
+     */
+    static boolean isReversed(Relation.Type type) {
+        return type == Relation.Type.DEVELOPED_USING;
+    }
+
+    /**
+     * @return SPDX checksum algorithm for the hash key, or null if not supported by SPDX
+     */
+    static @NullOr String checksumAlgorithm(String key) {
+        final var algorithm = key.replace("-", "").toUpperCase();
+        return SUPPORTED_HASH_KEYS.contains(algorithm) ? algorithm : null;
+    }
+
     private void writeCustomLicenses(TagValueDocument doc) throws IOException {
         final var dictionary = LicenseDictionary.getInstance().getCustomLicenses();
         final var keys = dictionary.keySet().stream().sorted().collect(Collectors.toList());
@@ -8,15 +8,20 @@ package com.philips.research.spdxbuilder.persistence.spdx;
 import pl.tlinkowski.annotation.basic.NullOr;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
 /**
  * SPDX Tag-value format implementation.
+ * Lines are written straight into a buffered UTF-8 writer, so the document is never held in memory.
  */
 public class TagValueDocument implements Closeable {
     @SuppressWarnings("SpellCheckingInspection")
     private static final String NO_ASSERTION = "NOASSERTION";
     private static final String NONE = "NONE";
+    private static final String START_TEXT = "<text>";
+    private static final String END_TEXT = "</text>";
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     private final Writer writer;
 
@@ -24,7 +29,7 @@ public class TagValueDocument implements Closeable {
      * Starts a new tag-value document.
      */
     public TagValueDocument(OutputStream stream) {
-        writer = new OutputStreamWriter(stream);
+        writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
     }
 
     /**
@@ -51,17 +56,45 @@ public class TagValueDocument implements Closeable {
             value = ((Optional<?>) value).orElse(null);
         }
 
-        if (value == null) {
-            value = NO_ASSERTION;
+        final var string = (value != null) ? value.toString() : NO_ASSERTION;
+        writer.write(tag);
+        writer.write(": ");
+        if (string.isBlank()) {
+            writer.write(NONE);
+        } else if (isMultiline(string)) {
+            writer.write(START_TEXT);
+            writeEscaped(string);
+            writer.write(END_TEXT);
+        } else {
+            writer.write(string);
         }
+        writer.write('\n');
+    }
 
-        final var string = value.toString();
-        if (string.isBlank()) {
-            value = NONE;
+    private static boolean isMultiline(String string) {
+        for (var i = 0; i < string.length(); i++) {
+            final var ch = string.charAt(i);
+            if (ch == '\r' || ch == '\n' || (ch == '>' && string.startsWith("text", i - 4))) {
+                return true;
+            }
         }
-        final var isMultiline = string.contains("\r") || string.contains("\n") || string.contains("text>");
-        final var escaped = value.toString().replaceAll("</text>", "</text> ");
-        writeLine(tag + ": " + (isMultiline ? "<text>" + escaped + "</text>" : value));
+        return false;
+    }
+
+    /**
+     * Writes the text while separating every embedded end tag from the text that follows it.
+     */
+    private void writeEscaped(String string) throws IOException {
+        var last = 0;
+        var pos = string.indexOf(END_TEXT);
+        while (pos >= 0) {
+            final var end = pos + END_TEXT.length();
+            writer.write(string, last, end - last);
+            writer.write(' ');
+            last = end;
+            pos = string.indexOf(END_TEXT, end);
+        }
+        writer.write(string, last, string.length() - last);
     }
 
     /**
@@ -75,7 +108,8 @@ public class TagValueDocument implements Closeable {
      * Writes a comment line.
      */
     public void addComment(String comment) throws IOException {
-        writeLine("## " + comment);
+        writer.write("## ");
+        writeLine(comment);
     }
 
     private void writeLine(String line) throws IOException {
@@ -85,10 +119,7 @@ public class TagValueDocument implements Closeable {
 
     @Override
     public void close() throws IOException {
-        if (writer != null) {
-            writer.close();
-        }
+        writer.close();
     }
-
 }
 
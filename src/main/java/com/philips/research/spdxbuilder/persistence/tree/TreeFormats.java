@@ -10,6 +10,7 @@ import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.philips.research.spdxbuilder.core.domain.BillOfMaterials;
 import pl.tlinkowski.annotation.basic.NullOr;
 
 import java.io.File;
@@ -20,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -32,6 +34,7 @@ public class TreeFormats {
             .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.NON_PRIVATE)
             .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
     private final List<FormatDefinition> formats;
+    private final Map<String, TreeParser.Format> compiled = new ConcurrentHashMap<>();
 
     public TreeFormats() {
         formats = readFormats();
@@ -49,19 +52,34 @@ public class TreeFormats {
         try (final InputStream stream = new FileInputStream(file)) {
             final var definition = MAPPER.readValue(stream, Formats.class);
             this.formats.addAll(definition.formats);
+            compiled.clear();
             return this;
         } catch (IOException e) {
             throw new TreeException("Failed to load custom formats: " + e.getMessage());
         }
     }
 
+    /**
+     * Configures the parser for the named format.
+     * Every format (including its parents) is compiled only once, so switching between formats is cheap.
+     */
     void configure(TreeParser parser, String format) {
+        parser.use(compiled.computeIfAbsent(format, this::compile));
+    }
+
+    private TreeParser.Format compile(String format) {
+        final var parser = new TreeParser(new BillOfMaterials());
+        define(parser, format);
+        return parser.getFormat();
+    }
+
+    private void define(TreeParser parser, String format) {
         final var definition = formats.stream()
                 .filter(fmt -> format.equals(fmt.format))
                 .findFirst()
                 .orElseThrow(() -> new TreeException("Undefined tree format: " + format));
         if (definition.parent != null) {
-            configure(parser, definition.parent);
+            define(parser, definition.parent);
         }
         definition.format(parser);
     }
@@ -10,66 +10,50 @@ import com.github.packageurl.PackageURL;
 import com.philips.research.spdxbuilder.core.domain.BillOfMaterials;
 import com.philips.research.spdxbuilder.core.domain.Package;
 import com.philips.research.spdxbuilder.core.domain.PurlGlob;
+import com.philips.research.spdxbuilder.core.domain.PurlGlobSet;
 import com.philips.research.spdxbuilder.core.domain.Relation;
 import pl.tlinkowski.annotation.basic.NullOr;
 
 import java.util.*;
+import java.util.regex.MatchResult;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
  * Parses consecutive lines of a textual tree into unique packages and their relations.
+ * All regular expressions are compiled once when the format is configured, and masks that share the same
+ * regular expression are matched only once per line.
  */
 class TreeParser {
     private static final Pattern ID_PATTERN = compile("^([\\w-\\.]+):([\\w-\\.]+):([\\w-\\.]+)");
     private static final Pattern FORMAT_PATTERN = compile("###\\s*(\\w+)");
 
     private final BillOfMaterials bom;
-    private final Map<PackageURL, Package> packages = new HashMap<>();
-    private final Stack<Integer> indentStack = new Stack<>();
-    private final Stack<@NullOr Package> packageStack = new Stack<>();
-    private final List<PurlGlob> internalGlobs = new ArrayList<>();
+    private int[] indentStack = new int[16];
+    private @NullOr Package[] packageStack = new Package[16];
+    private int depth;
+    private final PurlGlobSet internalGlobs = new PurlGlobSet();
     private int skipLevel = Integer.MAX_VALUE;
     private boolean isRelease;
-    private @NullOr Pattern startSection;
-    private @NullOr Pattern endSection;
-    private @NullOr String cleanup;
-    @SuppressWarnings("NotNullFieldNotInitialized")
-    private Pattern identifierPattern;
-    private @NullOr Pattern skipPattern;
-    private @NullOr Pattern internalPattern;
-    private @NullOr Pattern typePattern;
-    private int typeGroup;
-    @SuppressWarnings("NotNullFieldNotInitialized")
-    private Pattern namespacePattern;
-    private int namespaceGroup;
-    private Map<String, String> namespaceReplace = Map.of();
-    @SuppressWarnings("NotNullFieldNotInitialized")
-    private Pattern namePattern;
-    private int nameGroup;
-    private Map<String, String> nameReplace = Map.of();
-    @SuppressWarnings("NotNullFieldNotInitialized")
-    private Pattern versionPattern;
-    private int versionGroup;
-    private Map<String, String> versionReplace = Map.of();
-    private @NullOr Pattern relationshipPattern;
-    private int relationshipGroup;
-    @SuppressWarnings("NotNullFieldNotInitialized")
-    private Map<String, String> typeMapping;
-    @SuppressWarnings("NotNullFieldNotInitialized")
-    private Map<String, Relation.Type> relationshipMapping;
-    private boolean started;
+    private Format format = new Format();
+    private boolean shared;
+    private boolean started = true;
     private boolean ended;
 
     TreeParser(BillOfMaterials bom) {
         this.bom = bom;
-        clearFormat();
     }
 
     private static Pattern compile(String regEx) {
         return Pattern.compile(regEx);
     }
 
+    private static List<Replacement> replacements(Map<String, String> mapping) {
+        return mapping.entrySet().stream()
+                .map(e -> new Replacement(compile(e.getKey()), e.getValue()))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Indicates the root package(s) are final versions.
      */
@@ -82,37 +66,53 @@ class TreeParser {
      * Clears al settings used in interpreting lines.
      */
     TreeParser clearFormat() {
-        startSection = null;
-        endSection = null;
-        cleanup = null;
-        identifierPattern = compile("\\w");
-        skipPattern = null;
-        internalPattern = null;
-        typePattern = null;
-        typeGroup = 0;
-        namespacePattern = ID_PATTERN;
-        namespaceGroup = 1;
-        namePattern = ID_PATTERN;
-        nameGroup = 2;
-        versionPattern = ID_PATTERN;
-        versionGroup = 3;
-        relationshipPattern = null;
-        relationshipGroup = 0;
-        typeMapping = Map.of();
-        relationshipMapping = Map.of();
-        started = true;
-        ended = false;
+        return use(new Format(), false);
+    }
 
+    /**
+     * Switches to a previously compiled format without recompiling any of its regular expressions.
+     * The format is shared, so any later modification by this parser applies to a private copy.
+     *
+     * @param format as obtained from {@link #getFormat()}
+     */
+    TreeParser use(Format format) {
+        return use(format, true);
+    }
+
+    private TreeParser use(Format format, boolean shared) {
+        this.format = format;
+        this.shared = shared;
+        started = (format.startSection == null);
+        ended = false;
         return this;
     }
 
+    /**
+     * @return the current (compiled) format, which is no longer modified by this parser
+     */
+    Format getFormat() {
+        shared = true;
+        return format;
+    }
+
+    /**
+     * @return the current format, after copying it if it is shared
+     */
+    private Format editable() {
+        if (shared) {
+            format = new Format(format);
+            shared = false;
+        }
+        return format;
+    }
+
     /**
      * (Optionally) specifies the start of the relevant section.
      *
      * @param regEx regular expression to match the unique start marker
      */
     TreeParser withStartSection(String regEx) {
-        startSection = compile(regEx);
+        editable().startSection = compile(regEx);
         started = false;
         return this;
     }
@@ -123,7 +123,7 @@ class TreeParser {
      * @param regEx regular expression to match the unique end marker
      */
     TreeParser withEndSection(String regEx) {
-        endSection = compile(regEx);
+        editable().endSection = compile(regEx);
         return this;
     }
 
@@ -133,7 +133,7 @@ class TreeParser {
      * @param regEx regular expression for any fragment that is to be removed
      */
     TreeParser withCleanup(String regEx) {
-        cleanup = regEx;
+        editable().cleanup = compile(regEx);
         return this;
     }
 
@@ -144,7 +144,7 @@ class TreeParser {
      * @param regEx regular expression to match at the first character of the identifier
      */
     TreeParser withIdentifier(String regEx) {
-        identifierPattern = compile(regEx);
+        editable().identifierPattern = compile(regEx);
         return this;
     }
 
@@ -154,7 +154,7 @@ class TreeParser {
      * @param regEx regular expression to match a package that is to be skipped
      */
     TreeParser withSkip(String regEx) {
-        skipPattern = compile(regEx);
+        editable().skipPattern = compile(regEx);
         return this;
     }
 
@@ -164,7 +164,7 @@ class TreeParser {
      * @param regEx regular expression to match an internal package.
      */
     TreeParser withInternal(String regEx) {
-        internalPattern = compile(regEx);
+        editable().internalPattern = compile(regEx);
         return this;
     }
 
@@ -180,7 +180,7 @@ class TreeParser {
      * @see #withType(String, int) (Optional) format of a custom marker
      */
     TreeParser withTypes(Map<String, String> mapping) {
-        this.typeMapping = mapping;
+        editable().typeMapping = mapping;
         return this;
     }
 
@@ -191,8 +191,9 @@ class TreeParser {
      * @param group the matching group holding the mask
      */
     TreeParser withType(String regEx, int group) {
-        typePattern = compile(regEx);
-        typeGroup = group;
+        final var format = editable();
+        format.typePattern = format.mask(regEx);
+        format.typeGroup = group;
         return this;
     }
 
@@ -203,8 +204,9 @@ class TreeParser {
      * @param group the matching group holding the mask
      */
     TreeParser withNamespace(String regEx, int group) {
-        namespacePattern = compile(regEx);
-        namespaceGroup = group;
+        final var format = editable();
+        format.namespacePattern = format.mask(regEx);
+        format.namespaceGroup = group;
         return this;
     }
 
@@ -214,7 +216,7 @@ class TreeParser {
      * @param mapping replacement
      */
     TreeParser withNamespaceReplace(Map<String, String> mapping) {
-        namespaceReplace = mapping;
+        editable().namespaceReplace = replacements(mapping);
         return this;
     }
 
@@ -225,8 +227,9 @@ class TreeParser {
      * @param group the matching group holding the mask
      */
     TreeParser withName(String regEx, int group) {
-        namePattern = compile(regEx);
-        nameGroup = group;
+        final var format = editable();
+        format.namePattern = format.mask(regEx);
+        format.nameGroup = group;
         return this;
     }
 
@@ -236,7 +239,7 @@ class TreeParser {
      * @param mapping replacement
      */
     TreeParser withNameReplace(Map<String, String> mapping) {
-        nameReplace = mapping;
+        editable().nameReplace = replacements(mapping);
         return this;
     }
 
@@ -247,8 +250,9 @@ class TreeParser {
      * @param group the matching group holding the mask
      */
     TreeParser withVersion(String regEx, int group) {
-        versionPattern = compile(regEx);
-        versionGroup = group;
+        final var format = editable();
+        format.versionPattern = format.mask(regEx);
+        format.versionGroup = group;
         return this;
     }
 
@@ -258,7 +262,7 @@ class TreeParser {
      * @param mapping replacement
      */
     TreeParser withVersionReplace(Map<String, String> mapping) {
-        versionReplace = mapping;
+        editable().versionReplace = replacements(mapping);
         return this;
     }
 
@@ -270,7 +274,7 @@ class TreeParser {
      * @see #withRelationship(String, int) (Optional) format of a custom marker
      */
     TreeParser withRelationships(Map<String, String> mapping) {
-        relationshipMapping = mapping.entrySet().stream()
+        editable().relationshipMapping = mapping.entrySet().stream()
                 .collect(Collectors.toMap(Map.Entry::getKey, e -> relationType(e.getValue())));
         return this;
     }
@@ -291,8 +295,9 @@ class TreeParser {
      * @param group the matching group holding the mask
      */
     TreeParser withRelationship(String regEx, int group) {
-        relationshipPattern = compile(regEx);
-        relationshipGroup = group;
+        final var format = editable();
+        format.relationshipPattern = format.mask(regEx);
+        format.relationshipGroup = group;
         return this;
     }
 
@@ -332,23 +337,37 @@ class TreeParser {
         return Optional.empty();
     }
 
+    /**
+     * @return true once the start of the relevant section was found
+     */
+    boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * @return true once the end of the relevant section was found, ignoring all further lines
+     */
+    boolean isEnded() {
+        return ended;
+    }
+
     private boolean ignoredLine(String line) {
         if (!started) {
-            assert startSection != null;
-            started = startSection.matcher(line).find();
+            assert format.startSection != null;
+            started = format.startSection.matcher(line).find();
             return true;
         }
 
-        ended |= (endSection != null) && endSection.matcher(line).find();
+        ended |= (format.endSection != null) && format.endSection.matcher(line).find();
         return ended;
     }
 
     private String clean(String line) {
-        return (cleanup != null) ? line.replaceAll(cleanup, "") : line;
+        return (format.cleanup != null) ? format.cleanup.matcher(line).replaceAll("") : line;
     }
 
     private int firstPackageCharacter(String line) {
-        final var matcher = identifierPattern.matcher(line);
+        final var matcher = format.identifierPattern.matcher(line);
         if (!matcher.find()) {
             return line.length();
         }
@@ -356,9 +375,9 @@ class TreeParser {
     }
 
     private boolean skippedPackage(String name) {
-        if (indentStack.size() < skipLevel) {
-            if (skipPattern != null && skipPattern.matcher(name).find()) {
-                skipLevel = indentStack.size() + 1;
+        if (depth < skipLevel) {
+            if (format.skipPattern != null && format.skipPattern.matcher(name).find()) {
+                skipLevel = depth + 1;
                 return true;
             } else {
                 skipLevel = Integer.MAX_VALUE;
@@ -368,56 +387,45 @@ class TreeParser {
         return true;
     }
 
-    private PackageURL purlFromLine(String line) {
+    private PackageURL purlFromLine(LineMatches line) {
         try {
             final var type = extractType(line);
-            final var namespace = match(namespacePattern, line, namespaceGroup);
-            final var name = match(namePattern, line, nameGroup);
-            final var version = match(versionPattern, line, versionGroup);
-            return toPurl(type, replace(namespace, namespaceReplace), replace(name, nameReplace), replace(version, versionReplace));
+            final var namespace = line.match(format.namespacePattern, format.namespaceGroup);
+            final var name = line.match(format.namePattern, format.nameGroup);
+            final var version = line.match(format.versionPattern, format.versionGroup);
+            return toPurl(type, replace(namespace, format.namespaceReplace), replace(name, format.nameReplace), replace(version, format.versionReplace));
         } catch (TreeException e) {
             throw e;
         } catch (Exception e) {
-            throw new TreeException("Unsupported package format: '" + line + "'", e);
+            throw new TreeException("Unsupported package format: '" + line.line + "'", e);
         }
     }
 
-    private String extractType(String line) {
-        final var id = match(typePattern, line, typeGroup);
-        final @NullOr String type = typeMapping.isEmpty() ? id : typeMapping.get(id);
+    private String extractType(LineMatches line) {
+        final var id = line.match(format.typePattern, format.typeGroup);
+        final @NullOr String type = format.typeMapping.isEmpty() ? id : format.typeMapping.get(id);
         if (type == null) {
             throw new TreeException("Not a supported type identifier: '" + id
-                    + "'. Expected one of " + typeMapping.keySet());
+                    + "'. Expected one of " + format.typeMapping.keySet());
         }
         return type;
     }
 
-    private Relation.Type extractRelationship(String line) {
-        final var id = match(relationshipPattern, line, relationshipGroup);
-        final Relation.@NullOr Type relationship = relationshipMapping.isEmpty()
-                ? Relation.Type.DYNAMICALLY_LINKS : relationshipMapping.get(id);
+    private Relation.Type extractRelationship(LineMatches line) {
+        final var id = line.match(format.relationshipPattern, format.relationshipGroup);
+        final Relation.@NullOr Type relationship = format.relationshipMapping.isEmpty()
+                ? Relation.Type.DYNAMICALLY_LINKS : format.relationshipMapping.get(id);
         if (relationship == null) {
             throw new TreeException("Not a supported relationship identifier: '" + id
-                    + "'. Expected one of " + relationshipMapping.keySet());
+                    + "'. Expected one of " + format.relationshipMapping.keySet());
         }
         return relationship;
     }
 
-    private String match(@NullOr Pattern pattern, String line, int group) {
-        if (pattern == null) {
-            return "";
-        }
-        final var matcher = pattern.matcher(line);
-        if (!matcher.find()) {
-            return "";
-        }
-        return matcher.group(group);
-    }
-
-    private String replace(String source, Map<String, String> mapping) {
+    private String replace(String source, List<Replacement> replacements) {
         var result = source;
-        for (var entry : mapping.entrySet()) {
-            result = result.replaceAll(entry.getKey(), entry.getValue());
+        for (var replacement : replacements) {
+            result = replacement.pattern.matcher(result).replaceAll(replacement.replacement);
         }
         return result;
     }
@@ -431,7 +439,8 @@ class TreeParser {
     }
 
     private Package processPackage(int indent, String name) {
-        final var purl = purlFromLine(name);
+        final var line = new LineMatches(name);
+        final var purl = purlFromLine(line);
         final Package pkg = storePackage(purl);
 
         if (!(isRelease && indent == 0)) {
@@ -439,40 +448,152 @@ class TreeParser {
                 pkg.setInternal(true);
             }
         }
-        if (!indentStack.isEmpty() && indent > indentStack.peek()) {
-            bom.addRelation(packageStack.peek(), pkg, extractRelationship(name));
+        if (depth > 0 && indent > indentStack[depth - 1]) {
+            //noinspection ConstantConditions
+            bom.addRelation(packageStack[depth - 1], pkg, extractRelationship(line));
         }
 
         return pkg;
     }
 
     private boolean isInternal(PackageURL purl) {
-        return internalGlobs.stream().anyMatch(glob -> glob.matches(purl));
+        return internalGlobs.matches(purl);
     }
 
     private boolean matchesInternalRegex(String name) {
-        return internalPattern != null && internalPattern.matcher(name).find();
+        return format.internalPattern != null && format.internalPattern.matcher(name).find();
     }
 
     private Package storePackage(PackageURL purl) {
-        return packages.computeIfAbsent(purl, x -> {
-            final var pkg = new Package(purl);
-            bom.addPackage(pkg);
-            return pkg;
-        });
+        return bom.addPackageIfAbsent(purl, Package::new);
     }
 
     private void popUntil(int indent) {
-        while (!indentStack.isEmpty() && indent <= indentStack.peek()) {
-            indentStack.pop();
-            packageStack.pop();
+        while (depth > 0 && indent <= indentStack[depth - 1]) {
+            depth--;
+            packageStack[depth] = null;
         }
     }
 
     private void pushPackage(int indent, @NullOr Package pkg) {
-        indentStack.push(indent);
-        //noinspection ConstantConditions
-        packageStack.push(pkg);
+        if (depth == indentStack.length) {
+            indentStack = Arrays.copyOf(indentStack, 2 * depth);
+            packageStack = Arrays.copyOf(packageStack, 2 * depth);
+        }
+        indentStack[depth] = indent;
+        packageStack[depth] = pkg;
+        depth++;
+    }
+
+    /**
+     * Compiled settings for interpreting lines.
+     * Once shared (see {@link #getFormat()}), a format is never modified again and can be used by any parser.
+     */
+    static final class Format {
+        private final Map<String, Pattern> masks;
+        private @NullOr Pattern startSection;
+        private @NullOr Pattern endSection;
+        private @NullOr Pattern cleanup;
+        private Pattern identifierPattern = compile("\\w");
+        private @NullOr Pattern skipPattern;
+        private @NullOr Pattern internalPattern;
+        private @NullOr Pattern typePattern;
+        private int typeGroup;
+        private Pattern namespacePattern = ID_PATTERN;
+        private int namespaceGroup = 1;
+        private List<Replacement> namespaceReplace = List.of();
+        private Pattern namePattern = ID_PATTERN;
+        private int nameGroup = 2;
+        private List<Replacement> nameReplace = List.of();
+        private Pattern versionPattern = ID_PATTERN;
+        private int versionGroup = 3;
+        private List<Replacement> versionReplace = List.of();
+        private @NullOr Pattern relationshipPattern;
+        private int relationshipGroup;
+        private Map<String, String> typeMapping = Map.of();
+        private Map<String, Relation.Type> relationshipMapping = Map.of();
+
+        private Format() {
+            masks = new HashMap<>();
+        }
+
+        private Format(Format other) {
+            masks = new HashMap<>(other.masks);
+            startSection = other.startSection;
+            endSection = other.endSection;
+            cleanup = other.cleanup;
+            identifierPattern = other.identifierPattern;
+            skipPattern = other.skipPattern;
+            internalPattern = other.internalPattern;
+            typePattern = other.typePattern;
+            typeGroup = other.typeGroup;
+            namespacePattern = other.namespacePattern;
+            namespaceGroup = other.namespaceGroup;
+            namespaceReplace = other.namespaceReplace;
+            namePattern = other.namePattern;
+            nameGroup = other.nameGroup;
+            nameReplace = other.nameReplace;
+            versionPattern = other.versionPattern;
+            versionGroup = other.versionGroup;
+            versionReplace = other.versionReplace;
+            relationshipPattern = other.relationshipPattern;
+            relationshipGroup = other.relationshipGroup;
+            typeMapping = other.typeMapping;
+            relationshipMapping = other.relationshipMapping;
+        }
+
+        /**
+         * @return the compiled mask, shared with all other masks using the same regular expression
+         */
+        private Pattern mask(String regEx) {
+            return masks.computeIfAbsent(regEx, TreeParser::compile);
+        }
+    }
+
+    /**
+     * Precompiled substitution of an extracted value.
+     */
+    private static final class Replacement {
+        final Pattern pattern;
+        final String replacement;
+
+        Replacement(Pattern pattern, String replacement) {
+            this.pattern = pattern;
+            this.replacement = replacement;
+        }
     }
 
+    /**
+     * Matches of the masks on a single line, matching every distinct mask only once.
+     */
+    private static final class LineMatches {
+        final String line;
+        private final List<Pattern> patterns = new ArrayList<>(2);
+        private final List<@NullOr MatchResult> results = new ArrayList<>(2);
+
+        LineMatches(String line) {
+            this.line = line;
+        }
+
+        String match(@NullOr Pattern pattern, int group) {
+            if (pattern == null) {
+                return "";
+            }
+            final var result = resultFor(pattern);
+            return (result != null) ? result.group(group) : "";
+        }
+
+        private @NullOr MatchResult resultFor(Pattern pattern) {
+            for (var i = 0; i < patterns.size(); i++) {
+                if (patterns.get(i) == pattern) {
+                    return results.get(i);
+                }
+            }
+            final var matcher = pattern.matcher(line);
+            final @NullOr MatchResult result = matcher.find() ? matcher.toMatchResult() : null;
+            patterns.add(pattern);
+            results.add(result);
+            return result;
+        }
+    }
 }
@@ -7,20 +7,47 @@ package com.philips.research.spdxbuilder.persistence.tree;
 
 import com.philips.research.spdxbuilder.core.BomReader;
 import com.philips.research.spdxbuilder.core.domain.BillOfMaterials;
+import com.philips.research.spdxbuilder.core.domain.Package;
 import com.philips.research.spdxbuilder.core.domain.PurlGlob;
+import com.philips.research.spdxbuilder.core.domain.Relation;
 import pl.tlinkowski.annotation.basic.NullOr;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
+/**
+ * Reads the bill-of-materials from one or more textual trees.
+ * Tree files are memory-mapped, and only the lines of the relevant section are decoded as UTF-8.
+ * Multiple tree files are parsed concurrently by independent parsers, and merged (in the order of the files)
+ * into a single bill-of-materials with unique packages and relations.
+ */
 public class TreeReader implements BomReader {
     private final TreeFormats formats;
     private final String format;
-    private final InputStream stream;
+    private final @NullOr InputStream stream;
+    private final List<File> files;
     private final List<String> internalGlobs;
     private boolean isRelease;
 
     public TreeReader(InputStream stream, String format, @NullOr File extension, List<String> internalGlobs) {
+        this(stream, List.of(), format, extension, internalGlobs);
+    }
+
+    public TreeReader(List<File> files, String format, @NullOr File extension, List<String> internalGlobs) {
+        this(null, files, format, extension, internalGlobs);
+    }
+
+    private TreeReader(@NullOr InputStream stream, List<File> files, String format, @NullOr File extension, List<String> internalGlobs) {
         this.internalGlobs = internalGlobs;
         formats = new TreeFormats();
         if (extension != null) {
@@ -28,6 +55,7 @@ public class TreeReader implements BomReader {
         }
         this.format = format;
         this.stream = stream;
+        this.files = files;
     }
 
     public TreeReader setRelease(boolean enable) {
@@ -37,13 +65,88 @@ public class TreeReader implements BomReader {
 
     @Override
     public void read(BillOfMaterials bom) {
-        try (final var reader = new BufferedReader(new InputStreamReader(stream))) {
-            final var parser = new TreeParser(bom);
-            if (isRelease) {
-                parser.withRelease();
+        if (stream != null) {
+            read(stream, bom);
+        } else if (files.size() == 1) {
+            read(files.get(0), bom);
+        } else {
+            readConcurrently(bom);
+        }
+    }
+
+    private void readConcurrently(BillOfMaterials bom) {
+        final var threads = Math.min(files.size(), Runtime.getRuntime().availableProcessors());
+        final var executor = Executors.newFixedThreadPool(Math.max(threads, 1));
+        try {
+            final var futures = files.stream()
+                    .map(file -> CompletableFuture.supplyAsync(() -> {
+                        final var part = new BillOfMaterials();
+                        read(file, part);
+                        return part;
+                    }, executor))
+                    .collect(Collectors.toList());
+            for (var future : futures) {
+                merge(future.join(), bom);
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads a tree file by memory-mapping it and splitting the lines at the byte level.
+     * Lines before the relevant section are only decoded as single-byte characters to find the start marker,
+     * and reading stops at the end marker of the relevant section.
+     */
+    private void read(File file, BillOfMaterials bom) {
+        try (final var channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                try (final var stream = new FileInputStream(file)) {
+                    read(stream, bom);
+                }
+                return;
+            }
+            final var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            scan(buffer, createParser(bom));
+        } catch (IOException e) {
+            throw new TreeException("Failed to read the tree file " + file);
+        }
+    }
+
+    private void scan(ByteBuffer buffer, TreeParser parser) {
+        final var limit = buffer.limit();
+        var bytes = new byte[256];
+        var start = 0;
+        while (start < limit && !parser.isEnded()) {
+            var end = start;
+            byte ch = 0;
+            while (end < limit && (ch = buffer.get(end)) != '\n' && ch != '\r') {
+                end++;
             }
-            internalGlobs.forEach(pattern -> parser.withInternal(new PurlGlob(pattern)));
-            formats.configure(parser, format);
+            final var length = end - start;
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, 2 * bytes.length)];
+            }
+            buffer.position(start);
+            buffer.get(bytes, 0, length);
+            final var charset = parser.isStarted() ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+            parse(parser, new String(bytes, 0, length, charset));
+
+            start = end + 1;
+            if (ch == '\r' && start < limit && buffer.get(start) == '\n') {
+                start++;
+            }
+        }
+    }
+
+    private void read(InputStream stream, BillOfMaterials bom) {
+        try (final var reader = new BufferedReader(new InputStreamReader(stream))) {
+            final var parser = createParser(bom);
 
             @NullOr String line = reader.readLine();
             while (line != null) {
@@ -55,10 +158,43 @@ public class TreeReader implements BomReader {
         }
     }
 
+    private TreeParser createParser(BillOfMaterials bom) {
+        final var parser = new TreeParser(bom);
+        if (isRelease) {
+            parser.withRelease();
+        }
+        internalGlobs.forEach(pattern -> parser.withInternal(new PurlGlob(pattern)));
+        formats.configure(parser, format);
+        return parser;
+    }
+
+    /**
+     * Adds the packages and relations of a separately parsed tree, reusing the packages that already exist.
+     */
+    private void merge(BillOfMaterials part, BillOfMaterials bom) {
+        final var mapping = new IdentityHashMap<Package, Package>();
+        for (var pkg : part.getPackages()) {
+            final var merged = pkg.getPurl()
+                    .map(purl -> bom.addPackageIfAbsent(purl, p -> pkg))
+                    .orElseGet(() -> {
+                        bom.addPackage(pkg);
+                        return pkg;
+                    });
+            if (pkg.isInternal()) {
+                merged.setInternal(true);
+            }
+            mapping.put(pkg, merged);
+        }
+        for (Relation rel : new ArrayList<>(part.getRelations())) {
+            bom.addRelation(mapping.getOrDefault(rel.getFrom(), rel.getFrom()),
+                    mapping.getOrDefault(rel.getTo(), rel.getTo()), rel.getType());
+        }
+    }
+
     private void parse(TreeParser parser, String line) {
         try {
             parser.parse(line)
-                    .ifPresent(format -> formats.configure(parser.clearFormat(), format));
+                    .ifPresent(format -> formats.configure(parser, format));
         } catch (TreeException e) {
             System.err.println(line);
             throw e;
@@ -48,18 +48,22 @@ public class TreeWriter implements BomProcessor {
 
     private void buildNodes(BillOfMaterials bom) {
         nodes.clear();
-        bom.getPackages().forEach(pkg -> nodes.put(pkg, new ArrayList<>()));
+        final var targets = new HashSet<Package>();
+        final var visited = Collections.newSetFromMap(new IdentityHashMap<Package, Boolean>());
+        bom.getPackages().stream().filter(visited::add).forEach(pkg -> {
+            nodes.computeIfAbsent(pkg, x -> new ArrayList<>()).addAll(bom.getRelationsFrom(pkg));
+            if (!bom.getRelationsTo(pkg).isEmpty()) {
+                targets.add(pkg);
+            }
+        });
+        nodes.values().forEach(list -> list.sort(Comparator.comparing(rel -> name(rel.getTo()))));
 
         roots.clear();
-        roots.addAll(nodes.keySet());
+        nodes.keySet().stream()
+                .filter(pkg -> !targets.contains(pkg))
+                .forEach(roots::add);
         roots.sort(Comparator.comparing(this::name));
 
-        bom.getRelations().forEach(rel -> {
-            roots.remove(rel.getTo());
-            nodes.get(rel.getFrom()).add(rel);
-        });
-        nodes.values().forEach(list -> list.sort(Comparator.comparing(rel -> name(rel.getTo()))));
-
         done.clear();
         done.addAll(roots);
     }
@@ -5,9 +5,11 @@
 
 package com.philips.research.spdxbuilder.core.domain;
 
+import com.github.packageurl.PackageURL;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class BillOfMaterialsTest {
     private static final String TYPE = "Type";
@@ -44,6 +46,80 @@ class BillOfMaterialsTest {
         assertThat(bom.getRelations()).containsExactly(new Relation(pkg, other, Relation.Type.DEPENDS_ON));
     }
 
+    @Test
+    void indexesRelationsByPackage() {
+        final var third = new Package(NAMESPACE, "Third", VERSION);
+        bom.addRelation(pkg, other, Relation.Type.DEPENDS_ON)
+                .addRelation(pkg, third, Relation.Type.CONTAINS)
+                .addRelation(other, third, Relation.Type.DEPENDS_ON)
+                .addRelation(pkg, other, Relation.Type.DEPENDS_ON);
+
+        assertThat(bom.getRelationsFrom(pkg)).containsExactly(
+                new Relation(pkg, other, Relation.Type.DEPENDS_ON),
+                new Relation(pkg, third, Relation.Type.CONTAINS));
+        assertThat(bom.getRelationsTo(third)).containsExactly(
+                new Relation(pkg, third, Relation.Type.CONTAINS),
+                new Relation(other, third, Relation.Type.DEPENDS_ON));
+        assertThat(bom.getRelationsTo(pkg)).isEmpty();
+    }
+
+    @Test
+    void findsPackageByPurl() throws Exception {
+        final var purl = new PackageURL("pkg:npm/" + NAMESPACE + "/" + NAME + "@" + VERSION);
+        final var withPurl = new Package(purl);
+        bom.addPackage(pkg).addPackage(withPurl);
+
+        assertThat(bom.getPackage(purl)).containsSame(withPurl);
+        assertThat(bom.getPackage(new PackageURL("pkg:npm/" + NAMESPACE + "/Other@" + VERSION))).isEmpty();
+    }
+
+    @Test
+    void findsAllPackagesByPurl() throws Exception {
+        final var purl = new PackageURL("pkg:npm/" + NAMESPACE + "/" + NAME + "@" + VERSION);
+        final var first = new Package(purl);
+        final var second = new Package(purl);
+        bom.addPackage(first).addPackage(second);
+
+        assertThat(bom.getPackage(purl)).containsSame(first);
+        assertThat(bom.getPackages(purl)).containsExactly(first, second);
+    }
+
+    @Test
+    void findsPackageByCoordinates() {
+        bom.addPackage(pkg);
+
+        assertThat(bom.getPackage(NAMESPACE, NAME, VERSION)).containsSame(pkg);
+        assertThat(bom.getPackage(NAMESPACE, "Other", VERSION)).isEmpty();
+    }
+
+    @Test
+    void addsPackageForCoordinatesOnlyOnce() {
+        final var first = bom.addPackageIfAbsent(NAMESPACE, NAME, VERSION, () -> new Package(NAMESPACE, NAME, VERSION));
+        final var second = bom.addPackageIfAbsent(NAMESPACE, NAME, VERSION, () -> new Package(NAMESPACE, NAME, VERSION));
+
+        assertThat(second).isSameAs(first);
+        assertThat(bom.getPackages()).containsExactly(first);
+    }
+
+    @Test
+    void exposesUnmodifiablePackages() {
+        bom.addPackage(pkg);
+
+        assertThatThrownBy(() -> bom.getPackages().add(pkg))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void addsPackageForPurlOnlyOnce() throws Exception {
+        final var purl = new PackageURL("pkg:npm/" + NAMESPACE + "/" + NAME + "@" + VERSION);
+
+        final var first = bom.addPackageIfAbsent(purl, Package::new);
+        final var second = bom.addPackageIfAbsent(purl, Package::new);
+
+        assertThat(second).isSameAs(first);
+        assertThat(bom.getPackages()).containsExactly(first);
+    }
+
     @Test
     void defaultsTitleToFirstProject() {
         bom.addPackage(pkg);
@@ -5,6 +5,7 @@
 
 package com.philips.research.spdxbuilder.core.domain;
 
+import com.github.packageurl.PackageURL;
 import com.philips.research.spdxbuilder.core.*;
 import com.philips.research.spdxbuilder.persistence.spdx.SpdxWriter;
 import org.junit.jupiter.api.AfterEach;
@@ -80,6 +81,28 @@ class ConversionInteractorTest {
         verify(writer).process(bom);
     }
 
+    @Test
+    void writesAllOutputs() {
+        final var other = mock(BomProcessor.class);
+        interactor.addOutput(other);
+
+        interactor.convert(false);
+
+        verify(writer).process(bom);
+        verify(other).process(bom);
+    }
+
+    @Test
+    void throws_outputFailure() {
+        final var other = mock(BomProcessor.class);
+        doThrow(new BusinessException("Write failed")).when(other).process(bom);
+        interactor.addOutput(other);
+
+        assertThatThrownBy(() -> interactor.convert(false))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("Write failed");
+    }
+
     @Test
     void throws_enhancementFailure() {
         when(knowledgeBase.enhance(any(BillOfMaterials.class))).thenReturn(false);
@@ -170,29 +193,42 @@ class ConversionInteractorTest {
         }
     }
 
-//    class Curation {
-//        private final Package otherPkg = new Package(TYPE, GROUP, NAME, VERSION);
-//
-//        @BeforeEach
-//        void setUp() {
-//            pkg.setPurl(PURL);
-//            bom.addPackage(pkg).addPackage(otherPkg);
-//        }
-//
-//        @Test
-//        void curatesPackageLicense() {
-//            interactor.curatePackageLicense(PURL, LICENSE);
-//
-//            assertThat(pkg.getConcludedLicense()).contains(LICENSE);
-//            assertThat(otherPkg.getConcludedLicense()).isEmpty();
-//        }
-//
-//        @Test
-//        void curatesPackageSource() {
-//            interactor.curatePackageSource(PURL, LOCATION);
-//
-//            assertThat(pkg.getSourceLocation()).contains(LOCATION);
-//            assertThat(otherPkg.getSourceLocation()).isEmpty();
-//        }
-//    }
+    @Nested
+    class Curation {
+        private final Package otherPkg = new Package(GROUP, "Other", VERSION);
+        private PackageURL purl;
+
+        @BeforeEach
+        void setUp() throws Exception {
+            purl = new PackageURL("pkg:generic/" + GROUP + "/" + NAME + "@" + VERSION);
+            final var curated = new Package(purl);
+            bom.addPackage(curated).addPackage(otherPkg);
+        }
+
+        @Test
+        void curatesPackageLicense() {
+            interactor.curatePackageLicense(purl, "MIT");
+
+            assertThat(bom.getPackage(purl).orElseThrow().getConcludedLicense()).contains(License.of("MIT"));
+            assertThat(otherPkg.getConcludedLicense()).isEmpty();
+        }
+
+        @Test
+        void curatesPackageSource() {
+            interactor.curatePackageSource(purl, LOCATION);
+
+            assertThat(bom.getPackage(purl).orElseThrow().getSourceLocation()).contains(LOCATION);
+            assertThat(otherPkg.getSourceLocation()).isEmpty();
+        }
+
+        @Test
+        void curatesAllPackagesWithPurl() {
+            final var duplicate = new Package(purl);
+            bom.addPackage(duplicate);
+
+            interactor.curatePackageLicense(purl, "MIT");
+
+            assertThat(duplicate.getConcludedLicense()).contains(License.of("MIT"));
+        }
+    }
 }
@@ -7,7 +7,11 @@ package com.philips.research.spdxbuilder.core.domain;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -23,6 +27,27 @@ class LicenseDictionaryTest {
         assertThat(second).isSameAs(first);
     }
 
+    @Test
+    void loadsGeneratedLicenseIndex() {
+        final var indexed = new LicenseDictionary(getClass().getResource("/spdx-test.idx"));
+
+        assertThat(indexed.getVersion()).isEqualTo("1.0");
+        assertThat(indexed.licenseFor("mit license")).isEqualTo(License.of("MIT"));
+        assertThat(indexed.withException(License.of("GPL-2.0-only"), "classpath exception 2.0"))
+                .isEqualTo(License.of("GPL-2.0-only").with("Classpath-exception-2.0"));
+        assertThat(indexed.licenseFor("Apache-2.0")).isEqualTo(License.of("LicenseRef-1"));
+    }
+
+    @Test
+    void indexMatchesSpdxLicenseLists() {
+        final var lists = new LicenseDictionary(null);
+
+        assertThat(dictionary.getVersion()).isEqualTo(lists.getVersion());
+        assertThat(dictionary.licenseFor("Apache License 2.0")).isEqualTo(lists.licenseFor("Apache License 2.0"));
+        assertThat(dictionary.withException(License.of("GPL-2.0-only"), "Classpath exception 2.0"))
+                .isEqualTo(lists.withException(License.of("GPL-2.0-only"), "Classpath exception 2.0"));
+    }
+
     @Test
     void ignoresEmptyLicense() {
         final var license = dictionary.licenseFor(" \t");
@@ -93,6 +118,30 @@ class LicenseDictionaryTest {
         assertThat(dictionary.getCustomLicenses()).isEqualTo(Map.of("LicenseRef-1", "First", "LicenseRef-2", "Second"));
     }
 
+    @Test
+    void allocatesCustomLicensesConcurrently() throws Exception {
+        final var executor = Executors.newFixedThreadPool(8);
+        try {
+            final var tasks = new ArrayList<Callable<License>>();
+            for (var i = 0; i < 1000; i++) {
+                final var name = "Custom " + (i % 100);
+                tasks.add(() -> dictionary.licenseFor(name));
+            }
+            for (var future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final var custom = dictionary.getCustomLicenses();
+        assertThat(custom).hasSize(100);
+        assertThat(new HashSet<>(custom.values())).hasSize(100);
+        for (var i = 1; i <= 100; i++) {
+            assertThat(custom).containsKey("LicenseRef-" + i);
+        }
+    }
+
     @Test
     void ignoresEmptyException() {
         final var base = License.of("MIT");
@@ -151,4 +200,34 @@ class LicenseDictionaryTest {
 
         assertThat(string).isEqualTo(License.of("MIT").and(License.of("?")).and(License.of("Unknown")).toString());
     }
+
+    @Test
+    void cachesExpandedCustomLicenses() {
+        final var license = License.of("MIT").and(dictionary.licenseFor("Custom"));
+
+        final var text = dictionary.expand(license);
+
+        assertThat(dictionary.expand(license)).isSameAs(text);
+    }
+
+    @Test
+    void doesNotCacheUndefinedCustomLicenses() {
+        final var license = License.of("LicenseRef-1");
+        assertThat(dictionary.expand(license)).isEqualTo("?");
+
+        dictionary.licenseFor("Defined later");
+
+        assertThat(dictionary.expand(license)).isEqualTo("Defined later");
+    }
+
+    @Test
+    void expandsOverlappingCustomReferences() {
+        for (var i = 1; i <= 12; i++) {
+            dictionary.licenseFor("Custom " + i);
+        }
+
+        final var string = dictionary.expand(License.of("LicenseRef-12").and(License.of("LicenseRef-1")));
+
+        assertThat(string).isEqualTo("Custom 1 AND Custom 12");
+    }
 }
@@ -141,4 +141,16 @@ class LicenseParserTest {
         assertThat(license.toString()).contains(IDENTIFIER).contains("Ref");
         assertThat(dictionary.getCustomLicenses()).hasSize(1).containsValue(EXCEPTION);
     }
+
+    @Test
+    void sharesCachedLicenses() {
+        final var text = IDENTIFIER + " OR " + IDENTIFIER2;
+
+        final var first = LicenseParser.parse(text);
+        final var second = LicenseParser.parse(text);
+
+        assertThat(second).isSameAs(first);
+        assertThat(LicenseParser.getCacheMisses()).isEqualTo(1);
+        assertThat(LicenseParser.getCacheHits()).isEqualTo(1);
+    }
 }
@@ -71,6 +71,16 @@ class LicenseTest {
             assertThat(one.or(two.or(three)).toString()).isEqualTo("A OR B OR C");
         }
 
+        @Test
+        void combiningDoesNotModifyLicenses() {
+            final var combo = License.of("A").and(License.of("B"));
+
+            final var extended = combo.and(License.of("C"));
+
+            assertThat(combo.toString()).isEqualTo("A AND B");
+            assertThat(extended.toString()).isEqualTo("A AND B AND C");
+        }
+
         @Test
         void combinesLicensesUsingAnd() {
             final var one = License.of("A");
@@ -132,6 +142,21 @@ class LicenseTest {
         }
     }
 
+    @Nested
+    class Structure {
+        @Test
+        void exposesIdentifierOfSingleLicense() {
+            assertThat(License.of(IDENTIFIER).getSingleIdentifier()).contains(IDENTIFIER);
+        }
+
+        @Test
+        void hasNoSingleIdentifierForExpressions() {
+            assertThat(License.of(IDENTIFIER).with(EXCEPTION).getSingleIdentifier()).isEmpty();
+            assertThat(License.of(IDENTIFIER).and(License.of("Other")).getSingleIdentifier()).isEmpty();
+            assertThat(NO_LICENSE.getSingleIdentifier()).isEmpty();
+        }
+    }
+
     @Nested
     class DefinedLicenses {
         @Test
@@ -168,6 +193,16 @@ class LicenseTest {
             assertThat(license).isNotEqualTo("42");
             assertThat(License.of("A").and(License.of("B"))).isEqualTo(License.of("B").and(License.of("A")));
         }
+
+        @Test
+        void comparesCombinationsIgnoringCaseAndOrder() {
+            final var license = License.of("A").or(License.of("B").and(License.of("C")));
+            final var other = License.of("c").and(License.of("b")).or(License.of("a"));
+
+            assertThat(license).isEqualTo(other);
+            assertThat(license.hashCode()).isEqualTo(other.hashCode());
+            assertThat(license).isNotEqualTo(License.of("A").and(License.of("B").or(License.of("C"))));
+        }
     }
 }
 
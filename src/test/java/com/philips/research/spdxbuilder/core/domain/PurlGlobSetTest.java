@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2020-2021, Koninklijke Philips N.V., https://www.philips.com
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.philips.research.spdxbuilder.core.domain;
+
+import org.junit.jupiter.api.Test;
+
+import static com.philips.research.spdxbuilder.core.domain.PurlGlobTest.toPurl;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PurlGlobSetTest {
+    private final PurlGlobSet set = new PurlGlobSet();
+
+    @Test
+    void createsEmptySet() {
+        assertThat(set.isEmpty()).isTrue();
+        assertThat(set.matches(toPurl("pkg:maven/group/name@1.0"))).isFalse();
+    }
+
+    @Test
+    void matchesLiteralTypeAndNamespace() {
+        set.add(new PurlGlob("maven/com.example/*"));
+
+        assertThat(set.isEmpty()).isFalse();
+        assertThat(set.matches(toPurl("pkg:maven/com.example/name@1.0"))).isTrue();
+        assertThat(set.matches(toPurl("pkg:maven/com.other/name@1.0"))).isFalse();
+        assertThat(set.matches(toPurl("pkg:npm/com.example/name@1.0"))).isFalse();
+    }
+
+    @Test
+    void matchesLiteralType() {
+        set.add(new PurlGlob("npm/*/internal-*"));
+
+        assertThat(set.matches(toPurl("pkg:npm/internal-lib@1.0"))).isTrue();
+        assertThat(set.matches(toPurl("pkg:npm/%40scope/internal-lib@1.0"))).isTrue();
+        assertThat(set.matches(toPurl("pkg:maven/group/internal-lib@1.0"))).isFalse();
+    }
+
+    @Test
+    void matchesWildcardType() {
+        set.add(new PurlGlob("maven/com.example/*"))
+                .add(new PurlGlob("internal-*"));
+
+        assertThat(set.matches(toPurl("pkg:pypi/internal-tool@1.0"))).isTrue();
+        assertThat(set.matches(toPurl("pkg:maven/com.example/anything@1.0"))).isTrue();
+        assertThat(set.matches(toPurl("pkg:pypi/external-tool@1.0"))).isFalse();
+    }
+}
@@ -75,4 +75,23 @@ class PurlGlobTest {
         assertThat(glob.matches(toPurl("pkg:type/xAsomethingB"))).isFalse();
         assertThat(glob.matches(toPurl("pkg:type/AsomethingBx"))).isFalse();
     }
+
+    @Test
+    void matchesMultipleWildcards() {
+        final var glob = new PurlGlob("*/com.*.internal*/*-lib*@1.*");
+
+        assertThat(glob.matches(toPurl("pkg:maven/com.example.internal/my-lib@1.2"))).isTrue();
+        assertThat(glob.matches(toPurl("pkg:maven/com.x.internal.sub/core-library@1.0"))).isTrue();
+        assertThat(glob.matches(toPurl("pkg:maven/com.internal/my-lib@1.2"))).isFalse();
+        assertThat(glob.matches(toPurl("pkg:maven/com.example.internal/my-lib@2.0"))).isFalse();
+        assertThat(glob.matches(toPurl("pkg:maven/com.example.internal/library@1.0"))).isFalse();
+    }
+
+    @Test
+    void doesNotOverlapPrefixAndSuffix() {
+        final var glob = new PurlGlob("ab*ba");
+
+        assertThat(glob.matches(toPurl("pkg:type/aba"))).isFalse();
+        assertThat(glob.matches(toPurl("pkg:type/abba"))).isTrue();
+    }
 }
@@ -23,6 +23,7 @@ import java.time.LocalDateTime;
 import java.time.Month;
 import java.time.format.DateTimeFormatter;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -255,7 +256,7 @@ class BlackDuckClientTest {
                     .toString()));
             server.enqueue(EMPTY_LIST_RESPONSE); // No subprojects
 
-            final var components = client.getRootComponents(PROJECT_ID, VERSION_ID);
+            final var components = client.getRootComponents(PROJECT_ID, VERSION_ID).collect(Collectors.toList());
 
             assertThat(components).hasSize(1);
             final var comp = components.get(0);
@@ -270,7 +271,7 @@ class BlackDuckClientTest {
             final var request = server.takeRequest();
             assertThat(request.getMethod()).isEqualTo("GET");
             assertThat(request.getPath()).isEqualTo("/api/projects/" + PROJECT_ID + "/versions/" + VERSION_ID
-                    + "/hierarchical-components?limit=9999");
+                    + "/hierarchical-components?offset=0&limit=100");
         }
 
         @Test
@@ -284,7 +285,7 @@ class BlackDuckClientTest {
                             .put("componentName", COMPONENT_NAME)))
                     .toString()));
 
-            final var children = client.getDependencies(PROJECT_ID, VERSION_ID, parent);
+            final var children = client.getDependencies(PROJECT_ID, VERSION_ID, parent).collect(Collectors.toList());
 
             assertThat(children).hasSize(1);
             final var child = children.get(0);
@@ -293,7 +294,64 @@ class BlackDuckClientTest {
             assertThat(request.getMethod()).isEqualTo("GET");
             assertThat(request.getPath()).isEqualTo("/api/projects/" + PROJECT_ID + "/versions/" + VERSION_ID
                     + "/components/" + COMPONENT_ID + "/versions/" + COMPONENT_VERSION_ID
-                    + "/hierarchical-components/" + HIERARCHY_ID + "/children?limit=999");
+                    + "/hierarchical-components/" + HIERARCHY_ID + "/children?offset=0&limit=100");
+        }
+
+        @Test
+        void readsComponentsInPages() throws Exception {
+            final var parent = mock(BlackDuckComponent.class);
+            when(parent.getId()).thenReturn(COMPONENT_ID);
+            when(parent.getVersionId()).thenReturn(COMPONENT_VERSION_ID);
+            when(parent.getHierarchicalId()).thenReturn(HIERARCHY_ID);
+            server.enqueue(pageResponse(5, "first", "second"));
+            server.enqueue(pageResponse(5, "third", "fourth"));
+            server.enqueue(pageResponse(5, "fifth"));
+
+            final var children = client.setPageSize(2).getDependencies(PROJECT_ID, VERSION_ID, parent)
+                    .map(BlackDuckComponent::getName)
+                    .collect(Collectors.toList());
+
+            assertThat(children).containsExactly("first", "second", "third", "fourth", "fifth");
+            assertThat(server.getRequestCount()).isEqualTo(3);
+            assertThat(server.takeRequest().getPath()).endsWith("/children?offset=0&limit=2");
+            assertThat(server.takeRequest().getPath()).endsWith("/children?offset=2&limit=2");
+            assertThat(server.takeRequest().getPath()).endsWith("/children?offset=4&limit=2");
+        }
+
+        @Test
+        void stopsPagingAtTotalCount() {
+            server.enqueue(pageResponse(2, "first", "second"));
+            server.enqueue(EMPTY_LIST_RESPONSE); // No subprojects
+
+            final var components = client.setPageSize(2).getRootComponents(PROJECT_ID, VERSION_ID)
+                    .collect(Collectors.toList());
+
+            assertThat(components).hasSize(2);
+            assertThat(server.getRequestCount()).isEqualTo(2);
+        }
+
+        @Test
+        void continuesPagingAfterShortPageUntilTotalCount() {
+            server.enqueue(pageResponse(5, "first", "second"));
+            server.enqueue(pageResponse(5, "third", "fourth"));
+            server.enqueue(pageResponse(5, "fifth"));
+            server.enqueue(EMPTY_LIST_RESPONSE); // No subprojects
+
+            final var components = client.setPageSize(10).getRootComponents(PROJECT_ID, VERSION_ID)
+                    .collect(Collectors.toList());
+
+            assertThat(components).hasSize(5);
+            assertThat(server.getRequestCount()).isEqualTo(4);
+        }
+
+        private MockResponse pageResponse(int total, String... names) {
+            final var items = new JSONArray();
+            for (var name : names) {
+                items.put(new JSONObject().put("componentName", name));
+            }
+            return new MockResponse().setBody(new JSONObject()
+                    .put("totalCount", total)
+                    .put("items", items).toString());
         }
 
         @Test
@@ -314,7 +372,7 @@ class BlackDuckClientTest {
                                     .put("componentVersion", "api/etc/components/" + projectId + "/versions/" + versionId)))
                     .toString()));
 
-            final var components = client.getRootComponents(PROJECT_ID, VERSION_ID);
+            final var components = client.getRootComponents(PROJECT_ID, VERSION_ID).collect(Collectors.toList());
 
             assertThat(components).hasSize(2);
             final var extraComponent = components.get(0);
@@ -14,11 +14,15 @@ import com.philips.research.spdxbuilder.core.domain.Relation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -99,6 +103,10 @@ class BlackDuckReaderTest {
 
         private final BlackDuckComponent component = mockBdComponent(NAME);
 
+        private Answer<Stream<BlackDuckComponent>> streamOf(List<BlackDuckComponent> components) {
+            return invocation -> components.stream();
+        }
+
         private BlackDuckComponent mockBdComponent(String name) {
             final var component = mock(BlackDuckComponent.class);
             when(component.getId()).thenReturn(UUID.randomUUID());
@@ -117,7 +125,7 @@ class BlackDuckReaderTest {
             when(client.getServerVersion()).thenReturn(BLACK_DUCK_VERSION);
             when(client.findProject(PROJECT_SHORT)).thenReturn(Optional.of(project));
             when(client.findProjectVersion(PROJECT_ID, VERSION_SHORT)).thenReturn(Optional.of(projectVersion));
-            when(client.getRootComponents(PROJECT_ID, VERSION_ID)).thenReturn(List.of(component));
+            when(client.getRootComponents(PROJECT_ID, VERSION_ID)).thenAnswer(streamOf(List.of(component)));
         }
 
         @Test
@@ -138,7 +146,7 @@ class BlackDuckReaderTest {
             when(project.getDescription()).thenReturn(Optional.of(DESCRIPTION));
             when(projectVersion.getDescription()).thenReturn(Optional.of(SUMMARY));
             when(projectVersion.getLicense()).thenReturn(Optional.of(LICENSE));
-            when(client.getRootComponents(PROJECT_ID, VERSION_ID)).thenReturn(List.of());
+            when(client.getRootComponents(PROJECT_ID, VERSION_ID)).thenAnswer(streamOf(List.of()));
 
             reader.read(bom);
 
@@ -231,7 +239,7 @@ class BlackDuckReaderTest {
             when(component.getVersionId()).thenReturn(versionId);
             when(component.getLicense()).thenReturn(Optional.of(LICENSE));
             final var sub = mockBdComponent("sub-project-component");
-            when(client.getRootComponents(projectId, versionId)).thenReturn(List.of(sub));
+            when(client.getRootComponents(projectId, versionId)).thenAnswer(streamOf(List.of(sub)));
 
             reader.read(bom);
 
@@ -254,8 +262,8 @@ class BlackDuckReaderTest {
 
             @Test
             void exportsDependencyRelationships() {
-                when(client.getRootComponents(PROJECT_ID, VERSION_ID)).thenReturn(List.of(parent));
-                when(client.getDependencies(PROJECT_ID, VERSION_ID, parent)).thenReturn(List.of(component));
+                when(client.getRootComponents(PROJECT_ID, VERSION_ID)).thenAnswer(streamOf(List.of(parent)));
+                when(client.getDependencies(PROJECT_ID, VERSION_ID, parent)).thenAnswer(streamOf(List.of(component)));
 
                 reader.read(bom);
 
@@ -271,9 +279,12 @@ class BlackDuckReaderTest {
             void exportsAdditionalRelationshipsOnMultipleInstancesOfTheSameComponent() {
                 final var child1 = mockBdComponent("child1");
                 final var child2 = mockBdComponent("child2");
-                when(client.getRootComponents(PROJECT_ID, VERSION_ID)).thenReturn(List.of(parent, parent));
-                //noinspection unchecked
-                when(client.getDependencies(PROJECT_ID, VERSION_ID, parent)).thenReturn(List.of(child1), List.of(child2));
+                final var other = mockBdComponent("parent");
+                when(parent.getHierarchicalId()).thenReturn(1L);
+                when(other.getHierarchicalId()).thenReturn(2L);
+                when(client.getRootComponents(PROJECT_ID, VERSION_ID)).thenAnswer(streamOf(List.of(parent, other)));
+                when(client.getDependencies(PROJECT_ID, VERSION_ID, parent)).thenAnswer(streamOf(List.of(child1)));
+                when(client.getDependencies(PROJECT_ID, VERSION_ID, other)).thenAnswer(streamOf(List.of(child2)));
 
                 reader.read(bom);
 
@@ -287,6 +298,68 @@ class BlackDuckReaderTest {
                 );
             }
 
+            @Test
+            void reusesSubtreeOfRepeatedComponent() {
+                final var child = mockBdComponent("child");
+                final var grandchild = mockBdComponent("grandchild");
+                when(client.getRootComponents(PROJECT_ID, VERSION_ID)).thenAnswer(streamOf(List.of(parent, parent)));
+                when(client.getDependencies(PROJECT_ID, VERSION_ID, parent)).thenAnswer(streamOf(List.of(child)));
+                when(client.getDependencies(PROJECT_ID, VERSION_ID, child)).thenAnswer(streamOf(List.of(grandchild)));
+
+                reader.read(bom);
+
+                verify(client, times(1)).getDependencies(PROJECT_ID, VERSION_ID, parent);
+                verify(client, times(1)).getDependencies(PROJECT_ID, VERSION_ID, child);
+                assertThat(bom.getPackages()).hasSize(1 + 3);
+                assertThat(bom.getRelations()).contains(
+                        new Relation(bom.getPackages().get(1), bom.getPackages().get(2), Relation.Type.DYNAMICALLY_LINKS),
+                        new Relation(bom.getPackages().get(2), bom.getPackages().get(3), Relation.Type.DYNAMICALLY_LINKS));
+            }
+
+            @Test
+            void exportsSameTreeForConcurrentRequests() {
+                final var children = new ArrayList<BlackDuckComponent>();
+                for (var i = 0; i < 10; i++) {
+                    final var child = mockBdComponent("child" + i);
+                    final var grandchild = mockBdComponent("grandchild" + i);
+                    when(client.getDependencies(PROJECT_ID, VERSION_ID, child)).thenAnswer(streamOf(List.of(grandchild, component)));
+                    children.add(child);
+                }
+                when(client.getRootComponents(PROJECT_ID, VERSION_ID)).thenAnswer(streamOf(List.of(parent, component)));
+                when(client.getDependencies(PROJECT_ID, VERSION_ID, parent)).thenAnswer(streamOf(children));
+                final var sequential = new BillOfMaterials();
+                new BlackDuckReader(client, TOKEN, PROJECT_SHORT, VERSION_SHORT).read(sequential);
+
+                new BlackDuckReader(client, TOKEN, PROJECT_SHORT, VERSION_SHORT).setMaxRequests(8).read(bom);
+
+                assertThat(bom.getPackages()).hasSize(1 + 1 + 1 + 10 + 10);
+                assertThat(bom.getPackages()).containsExactlyElementsOf(sequential.getPackages());
+                assertThat(bom.getRelations()).containsExactlyInAnyOrderElementsOf(sequential.getRelations());
+            }
+
+            @Test
+            void limitsConcurrentRequests() {
+                final var active = new AtomicInteger();
+                final var maxActive = new AtomicInteger();
+                final var children = new ArrayList<BlackDuckComponent>();
+                for (var i = 0; i < 20; i++) {
+                    final var child = mockBdComponent("child" + i);
+                    when(client.getDependencies(PROJECT_ID, VERSION_ID, child)).thenAnswer(invocation -> {
+                        maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                        Thread.sleep(10);
+                        active.decrementAndGet();
+                        return Stream.of();
+                    });
+                    children.add(child);
+                }
+                when(client.getRootComponents(PROJECT_ID, VERSION_ID)).thenAnswer(streamOf(children));
+
+                new BlackDuckReader(client, TOKEN, PROJECT_SHORT, VERSION_SHORT).setMaxRequests(3).read(bom);
+
+                assertThat(bom.getPackages()).hasSize(1 + 20);
+                assertThat(maxActive.get()).isBetween(1, 3);
+            }
+
             @Test
             void mapsRelationshipTypeFromComponentUsage() {
                 assertRelationship(List.of("SOURCE_CODE"), Relation.Type.DESCENDANT_OF);
@@ -308,7 +381,7 @@ class BlackDuckReaderTest {
 
             void assertRelationship(List<String> usages, Relation.Type relationship) {
                 when(component.getUsages()).thenReturn(usages);
-                when(client.getRootComponents(PROJECT_ID, VERSION_ID)).thenReturn(List.of(component));
+                when(client.getRootComponents(PROJECT_ID, VERSION_ID)).thenAnswer(streamOf(List.of(component)));
                 final var bom = new BillOfMaterials();
 
                 new BlackDuckReader(client, TOKEN, PROJECT_SHORT, VERSION_SHORT).read(bom);
@@ -8,13 +8,19 @@ package com.philips.research.spdxbuilder.persistence.bom_base;
 import com.github.packageurl.PackageURL;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -60,6 +66,80 @@ class BomBaseClientTest {
         assertThat(meta).isEmpty();
     }
 
+    @Test
+    void readsCachedPackageMetadata(@TempDir Path directory) throws Exception {
+        client.setCache(new MetadataCache(directory));
+        mockServer.enqueue(new MockResponse().setBody(new JSONObject()
+                .put("attributes", new JSONObject()
+                        .put("title", TITLE)).toString()));
+        client.readPackage(new PackageURL(PURL));
+
+        final var meta = client.readPackage(new PackageURL(PURL)).orElseThrow();
+
+        assertThat(meta.getTitle()).contains(TITLE);
+        assertThat(mockServer.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void readsCachedUnknownPackage(@TempDir Path directory) throws Exception {
+        client.setCache(new MetadataCache(directory));
+        mockServer.enqueue(new MockResponse().setResponseCode(404));
+        client.readPackage(new PackageURL(PURL));
+
+        final var meta = client.readPackage(new PackageURL(PURL));
+
+        assertThat(meta).isEmpty();
+        assertThat(mockServer.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void readsPackagesInBatches() throws Exception {
+        final var purls = new ArrayList<PackageURL>();
+        for (var i = 0; i < 10; i++) {
+            purls.add(new PackageURL("pkg:maven/group/name" + i + "@1"));
+        }
+        for (var i = 0; i < 10; i += 5) {
+            final var body = new JSONObject();
+            purls.subList(i, i + 4).forEach(purl -> body.put(purl.canonicalize(), new JSONObject()
+                    .put("attributes", new JSONObject().put("title", TITLE))));
+            mockServer.enqueue(new MockResponse().setBody(body.toString()));
+        }
+
+        final var result = client.setBatchSize(5).readPackages(purls);
+
+        assertThat(mockServer.getRequestCount()).isEqualTo(2);
+        assertThat(result).hasSize(10);
+        assertThat(result.get(purls.get(0)).orElseThrow().getTitle()).contains(TITLE);
+        assertThat(result.get(purls.get(4))).isEmpty();
+        final var request = mockServer.takeRequest();
+        assertThat(request.getMethod()).isEqualTo("POST");
+        assertThat(request.getPath()).isEqualTo("/packages");
+        assertThat(new JSONArray(request.getBody().readUtf8()).toList())
+                .containsExactlyElementsOf(purls.subList(0, 5).stream().map(PackageURL::canonicalize).collect(Collectors.toList()));
+    }
+
+    @Test
+    void readsNoBatchesByDefault() throws Exception {
+        final var result = client.readPackages(List.of(new PackageURL(PURL)));
+
+        assertThat(result).isEmpty();
+        assertThat(mockServer.getRequestCount()).isZero();
+    }
+
+    @Test
+    void skipsBatchesIfNotSupportedByServer() throws Exception {
+        final var purls = List.of(new PackageURL(PURL), new PackageURL("pkg:maven/group/other@1"));
+        mockServer.enqueue(new MockResponse().setResponseCode(404));
+        client.setBatchSize(5);
+
+        final var first = client.readPackages(purls);
+        final var second = client.readPackages(purls);
+
+        assertThat(first).isEmpty();
+        assertThat(second).isEmpty();
+        assertThat(mockServer.getRequestCount()).isEqualTo(1);
+    }
+
     @Test
     void throws_errorStatus() {
         mockServer.enqueue(new MockResponse().setResponseCode(500));
@@ -16,11 +16,13 @@ import org.junit.jupiter.api.Test;
 
 import java.net.URI;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 class BomBaseKnowledgeBaseTest {
@@ -115,4 +117,83 @@ class BomBaseKnowledgeBaseTest {
         assertThat(success).isFalse();
         verify(client, times(2)).readPackage(any(PackageURL.class));
     }
+
+    @Test
+    void enhancesPrefetchedPackages() {
+        when(client.readPackages(List.of(PURL))).thenReturn(Map.of(PURL, Optional.of(meta)));
+        when(meta.getTitle()).thenReturn(Optional.of(TITLE));
+
+        final var success = knowledgeBase.enhance(bom);
+
+        assertThat(success).isTrue();
+        assertThat(pkg.getSummary()).contains(TITLE);
+        verify(client, never()).readPackage(any(PackageURL.class));
+    }
+
+    @Test
+    void enhancesPackagesConcurrently() {
+        final var packages = new ArrayList<Package>();
+        for (var i = 0; i < 20; i++) {
+            final var purl = packageUrl("pkg:maven/group/name" + i + "@1");
+            final var other = new Package(purl);
+            packages.add(other);
+            bom.addPackage(other);
+            when(client.readPackage(purl)).thenReturn((i % 3 == 0) ? Optional.empty() : Optional.of(meta));
+        }
+        when(meta.getTitle()).thenReturn(Optional.of(TITLE));
+
+        final var success = knowledgeBase.setParallelism(4).enhance(bom);
+
+        assertThat(success).isFalse();
+        for (var i = 0; i < packages.size(); i++) {
+            assertThat(packages.get(i).getSummary().isPresent()).isEqualTo(i % 3 != 0);
+        }
+        verify(client, times(21)).readPackage(any(PackageURL.class));
+    }
+
+    @Test
+    void assignsCustomLicensesInPackageOrder() {
+        final var packages = new ArrayList<Package>();
+        final var suffix = Long.toString(System.nanoTime());
+        for (var i = 0; i < 8; i++) {
+            final var purl = packageUrl("pkg:maven/group/licensed" + i + "@1");
+            final var other = new Package(purl);
+            packages.add(other);
+            bom.addPackage(other);
+            final var license = mock(PackageMetadata.class);
+            when(license.getDeclaredLicense()).thenReturn(Optional.of("Custom-" + i + "-" + suffix));
+            final var delay = 10L * (8 - i);
+            when(client.readPackage(purl)).thenAnswer(invocation -> {
+                Thread.sleep(delay);
+                return Optional.of(license);
+            });
+        }
+
+        knowledgeBase.setParallelism(8).enhance(bom);
+
+        var last = 0;
+        for (var pkg : packages) {
+            //noinspection OptionalGetWithoutIsPresent
+            final var license = pkg.getDeclaredLicense().get();
+            final var id = Integer.parseInt(license.toString().substring("LicenseRef-".length()));
+            assertThat(id).isGreaterThan(last);
+            last = id;
+        }
+    }
+
+    @Test
+    void propagatesConcurrentEnhancementException() {
+        bom.addPackage(new Package(packageUrl("pkg:maven/group/other@1")));
+        when(client.readPackage(PURL)).thenThrow(new BomBaseException("Test"));
+
+        assertThatThrownBy(() -> knowledgeBase.setParallelism(2).enhance(bom))
+                .isInstanceOf(BomBaseException.class)
+                .hasMessage("Test");
+    }
+
+    @Test
+    void rejectsInvalidParallelism() {
+        assertThatThrownBy(() -> knowledgeBase.setParallelism(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
 }
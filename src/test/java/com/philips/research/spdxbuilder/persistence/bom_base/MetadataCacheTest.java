@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2020-2021, Koninklijke Philips N.V., https://www.philips.com
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.philips.research.spdxbuilder.persistence.bom_base;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MetadataCacheTest {
+    private static final String PURL = "pkg:maven/group/name@version";
+    private static final String OTHER_PURL = "pkg:maven/group/other@version";
+    private static final String TITLE = "Title";
+    private static final long NOW = 1_000_000_000L;
+
+    private final Clock clock = mock(Clock.class);
+    private final BomBaseApi.PackageJson meta = new BomBaseApi.PackageJson();
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void beforeEach() {
+        when(clock.millis()).thenReturn(NOW);
+        meta.attributes = Map.of("title", TITLE);
+    }
+
+    @Test
+    void missesUnknownPackage() {
+        final var cache = new MetadataCache(directory, clock);
+
+        assertThat(cache.get(PURL)).isEmpty();
+    }
+
+    @Test
+    void persistsMetadata() throws Exception {
+        new MetadataCache(directory, clock).put(PURL, meta);
+        try (final var files = Files.list(directory)) {
+            assertThat(files.findFirst().orElseThrow().getFileName().toString()).matches("[0-9a-f]{64}\\.json");
+        }
+
+        final var entry = new MetadataCache(directory, clock).get(PURL).orElseThrow();
+
+        assertThat(entry.getMetadata().orElseThrow().getTitle()).contains(TITLE);
+    }
+
+    @Test
+    void persistsUnknownPackage() {
+        new MetadataCache(directory, clock).put(PURL, null);
+
+        final var entry = new MetadataCache(directory, clock).get(PURL).orElseThrow();
+
+        assertThat(entry.getMetadata()).isEmpty();
+    }
+
+    @Test
+    void expiresMetadata() {
+        final var cache = new MetadataCache(directory, clock).setTimeToLive(Duration.ofHours(2));
+        cache.put(PURL, meta);
+
+        when(clock.millis()).thenReturn(NOW + Duration.ofHours(1).toMillis());
+        assertThat(cache.get(PURL)).isNotEmpty();
+        when(clock.millis()).thenReturn(NOW + Duration.ofHours(3).toMillis());
+        assertThat(cache.get(PURL)).isEmpty();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void rejectsNonPositiveTimeToLive() {
+        final var cache = new MetadataCache(directory, clock);
+
+        assertThatThrownBy(() -> cache.setTimeToLive(Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cache.setNotFoundTimeToLive(Duration.ofHours(-1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void expiresUnknownPackageSeparately() {
+        final var cache = new MetadataCache(directory, clock)
+                .setTimeToLive(Duration.ofHours(10))
+                .setNotFoundTimeToLive(Duration.ofHours(1));
+        cache.put(PURL, meta);
+        cache.put(OTHER_PURL, null);
+
+        when(clock.millis()).thenReturn(NOW + Duration.ofHours(2).toMillis());
+
+        assertThat(cache.get(PURL)).isNotEmpty();
+        assertThat(cache.get(OTHER_PURL)).isEmpty();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntries() throws Exception {
+        final var cache = new MetadataCache(directory, clock).setMaxEntries(2);
+        cache.put(PURL, meta);
+        cache.put(OTHER_PURL, meta);
+        cache.get(PURL);
+
+        cache.put("pkg:maven/group/third@version", meta);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(PURL)).isNotEmpty();
+        assertThat(cache.get(OTHER_PURL)).isEmpty();
+        try (final var files = Files.list(directory)) {
+            assertThat(files.count()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void ignoresCorruptEntries() throws Exception {
+        final var cache = new MetadataCache(directory, clock);
+        cache.put(PURL, meta);
+        try (final var files = Files.list(directory)) {
+            Files.writeString(files.findFirst().orElseThrow(), "Not JSON");
+        }
+
+        assertThat(cache.get(PURL)).isEmpty();
+        assertThat(cache.size()).isZero();
+    }
+}
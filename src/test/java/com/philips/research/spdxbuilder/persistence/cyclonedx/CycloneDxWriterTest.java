@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2020-2021, Koninklijke Philips N.V., https://www.philips.com
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.philips.research.spdxbuilder.persistence.cyclonedx;
+
+import com.github.packageurl.PackageURL;
+import com.philips.research.spdxbuilder.core.domain.BillOfMaterials;
+import com.philips.research.spdxbuilder.core.domain.License;
+import com.philips.research.spdxbuilder.core.domain.LicenseDictionary;
+import com.philips.research.spdxbuilder.core.domain.Package;
+import com.philips.research.spdxbuilder.core.domain.Party;
+import com.philips.research.spdxbuilder.core.domain.Relation;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CycloneDxWriterTest {
+    private static final String TITLE = "Title";
+    private static final String ORGANIZATION = "Organization";
+    private static final String NAMESPACE = "namespace";
+    private static final String NAME = "name";
+    private static final String VERSION = "1.2.3";
+
+    private final BillOfMaterials bom = new BillOfMaterials()
+            .setTitle(TITLE)
+            .setOrganization(new Party(Party.Type.ORGANIZATION, ORGANIZATION));
+
+    private JSONObject write() throws Exception {
+        final var stream = new ByteArrayOutputStream();
+        try (final var writer = new CycloneDxWriter(stream)) {
+            writer.process(bom);
+        }
+        return new JSONObject(stream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writesMetadata() throws Exception {
+        final var json = write();
+
+        assertThat(json.getString("bomFormat")).isEqualTo("CycloneDX");
+        assertThat(json.getString("specVersion")).isEqualTo("1.4");
+        assertThat(json.getString("serialNumber")).startsWith("urn:uuid:");
+        final var metadata = json.getJSONObject("metadata");
+        assertThat(metadata.getJSONObject("component").getString("name")).isEqualTo(TITLE);
+        assertThat(metadata.getJSONObject("supplier").getString("name")).isEqualTo(ORGANIZATION);
+        assertThat(json.getJSONArray("components")).isEmpty();
+    }
+
+    @Test
+    void writesComponents() throws Exception {
+        bom.addPackage(new Package(NAMESPACE, NAME, VERSION)
+                .setPurl(new PackageURL("pkg:maven/" + NAMESPACE + '/' + NAME + '@' + VERSION))
+                .setSupplier(new Party(Party.Type.PERSON, "Supplier"))
+                .addHash("SHA-256", "ABC")
+                .setCopyright("Copyright"));
+
+        final var component = write().getJSONArray("components").getJSONObject(0);
+
+        assertThat(component.getString("type")).isEqualTo("library");
+        assertThat(component.getString("bom-ref")).isEqualTo("pkg-1");
+        assertThat(component.getString("group")).isEqualTo(NAMESPACE);
+        assertThat(component.getString("name")).isEqualTo(NAME);
+        assertThat(component.getString("version")).isEqualTo(VERSION);
+        assertThat(component.getString("purl")).isEqualTo("pkg:maven/" + NAMESPACE + '/' + NAME + '@' + VERSION);
+        assertThat(component.getJSONObject("supplier").getString("name")).isEqualTo("Supplier");
+        assertThat(component.getString("copyright")).isEqualTo("Copyright");
+        final var hash = component.getJSONArray("hashes").getJSONObject(0);
+        assertThat(hash.getString("alg")).isEqualTo("SHA-256");
+        assertThat(hash.getString("content")).isEqualTo("abc");
+        assertThat(component.has("licenses")).isFalse();
+    }
+
+    @Test
+    void writesLicenses() throws Exception {
+        final var custom = LicenseDictionary.getInstance().licenseFor("My own license");
+        bom.addPackage(new Package(NAMESPACE, "single", VERSION).setDeclaredLicense(License.of("MIT")))
+                .addPackage(new Package(NAMESPACE, "custom", VERSION).setDeclaredLicense(custom))
+                .addPackage(new Package(NAMESPACE, "combo", VERSION)
+                        .setDeclaredLicense(License.of("MIT"))
+                        .setConcludedLicense(License.of("MIT").or(License.of("Apache-2.0"))))
+                .addPackage(new Package(NAMESPACE, "exception", VERSION)
+                        .setDeclaredLicense(License.of("GPL-2.0-only").with("Classpath-exception-2.0")));
+
+        final var components = write().getJSONArray("components");
+
+        assertThat(components.getJSONObject(0).getJSONArray("licenses").getJSONObject(0)
+                .getJSONObject("license").getString("id")).isEqualTo("MIT");
+        assertThat(components.getJSONObject(1).getJSONArray("licenses").getJSONObject(0)
+                .getJSONObject("license").getString("name")).isEqualTo("My own license");
+        assertThat(components.getJSONObject(2).getJSONArray("licenses").getJSONObject(0)
+                .getString("expression")).isEqualTo("Apache-2.0 OR MIT");
+        assertThat(components.getJSONObject(3).getJSONArray("licenses").getJSONObject(0)
+                .getString("expression")).isEqualTo("GPL-2.0-only WITH Classpath-exception-2.0");
+    }
+
+    @Test
+    void writesDependencies() throws Exception {
+        final var parent = new Package(NAMESPACE, "parent", VERSION);
+        final var child = new Package(NAMESPACE, "child", VERSION);
+        final var origin = new Package(NAMESPACE, "origin", VERSION);
+        bom.addPackage(parent).addPackage(child).addPackage(origin)
+                .addRelation(parent, child, Relation.Type.STATICALLY_LINKS)
+                .addRelation(parent, origin, Relation.Type.DESCENDANT_OF);
+
+        final var dependencies = write().getJSONArray("dependencies");
+
+        assertThat(dependencies).hasSize(3);
+        final var dependency = dependencies.getJSONObject(0);
+        assertThat(dependency.getString("ref")).isEqualTo("pkg-1");
+        assertThat(dependency.getJSONArray("dependsOn").toList()).containsExactly("pkg-2");
+        assertThat(dependencies.getJSONObject(1).getJSONArray("dependsOn")).isEmpty();
+    }
+}
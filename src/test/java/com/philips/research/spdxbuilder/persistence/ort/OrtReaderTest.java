@@ -5,13 +5,18 @@
 
 package com.philips.research.spdxbuilder.persistence.ort;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.philips.research.spdxbuilder.core.domain.BillOfMaterials;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.net.URI;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -38,6 +43,53 @@ class OrtReaderTest {
         assertThat(bom.getPackages()).hasSize(1 + 2);
     }
 
+    @Test
+    void loadsOrtSampleWithRepositoryAfterAnalyzer(@TempDir Path directory) throws Exception {
+        final var yaml = Files.readString(ORT_SAMPLE.toPath());
+        final var split = yaml.indexOf("\nanalyzer:");
+        final var file = directory.resolve("reordered.yml");
+        Files.writeString(file, yaml.substring(split + 1) + "\n" + yaml.substring(0, split + 1));
+
+        createBOM(file.toFile());
+
+        assertThat(bom.getPackages()).hasSize(1 + 2);
+    }
+
+    @Test
+    void loadsCompressedJsonOrtSample(@TempDir Path directory) throws Exception {
+        final var tree = new ObjectMapper(new YAMLFactory()).readTree(ORT_SAMPLE);
+        final var file = directory.resolve("analyzer-result.json.gz");
+        try (final var stream = new GZIPOutputStream(Files.newOutputStream(file))) {
+            new ObjectMapper().writeValue(stream, tree);
+        }
+
+        createBOM(file.toFile());
+
+        assertThat(bom.getPackages()).hasSize(1 + 2);
+    }
+
+    @Test
+    void detectsFormatOfUnnamedCompressedFile(@TempDir Path directory) throws Exception {
+        final var file = directory.resolve("result");
+        try (final var stream = new GZIPOutputStream(Files.newOutputStream(file))) {
+            Files.copy(ORT_SAMPLE.toPath(), stream);
+        }
+
+        createBOM(file.toFile());
+
+        assertThat(bom.getPackages()).hasSize(1 + 2);
+    }
+
+    @Test
+    void rejectsZstandardCompressedFile(@TempDir Path directory) throws Exception {
+        final var file = directory.resolve("analyzer-result.yml.zst");
+        Files.write(file, new byte[]{(byte) 0x28, (byte) 0xb5, (byte) 0x2f, (byte) 0xfd, 0});
+
+        assertThatThrownBy(() -> createBOM(file.toFile()))
+                .isInstanceOf(OrtReaderException.class)
+                .hasMessageContaining("Zstandard");
+    }
+
     @Test()
     void abortsOnAnalyzerIssues() {
         assertThatThrownBy(() -> createBOM(ORT_SAMPLE_WITH_ISSUE))
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2020-2021, Koninklijke Philips N.V., https://www.philips.com
+ * SPDX-License-Identifier: MIT
+ */
+
+package com.philips.research.spdxbuilder.persistence.spdx;
+
+import com.philips.research.spdxbuilder.core.domain.BillOfMaterials;
+import com.philips.research.spdxbuilder.core.domain.License;
+import com.philips.research.spdxbuilder.core.domain.Package;
+import com.philips.research.spdxbuilder.core.domain.Party;
+import com.philips.research.spdxbuilder.core.domain.Relation;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpdxJsonWriterTest {
+    private static final String TITLE = "Title";
+    private static final String ORGANIZATION = "Organization";
+    private static final String NAMESPACE = "namespace";
+    private static final String NAME = "name";
+    private static final String VERSION = "1.2.3";
+
+    private final BillOfMaterials bom = new BillOfMaterials()
+            .setTitle(TITLE)
+            .setOrganization(new Party(Party.Type.ORGANIZATION, ORGANIZATION));
+
+    private JSONObject write() throws Exception {
+        final var stream = new ByteArrayOutputStream();
+        try (final var writer = new SpdxJsonWriter(stream)) {
+            writer.process(bom);
+        }
+        return new JSONObject(stream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writesDocumentInformation() throws Exception {
+        final var json = write();
+
+        assertThat(json.getString("spdxVersion")).isEqualTo("SPDX-2.2");
+        assertThat(json.getString("dataLicense")).isEqualTo("CC0-1.0");
+        assertThat(json.getString("SPDXID")).isEqualTo("SPDXRef-DOCUMENT");
+        assertThat(json.getString("name")).isEqualTo(TITLE);
+        assertThat(json.getString("documentNamespace")).startsWith("https://spdx.org/");
+        final var creation = json.getJSONObject("creationInfo");
+        assertThat(creation.getJSONArray("creators").getString(0)).isEqualTo("Organization: " + ORGANIZATION);
+        assertThat(creation.getString("created")).isNotBlank();
+        assertThat(json.getJSONArray("packages")).isEmpty();
+        assertThat(json.getJSONArray("relationships")).isEmpty();
+    }
+
+    @Test
+    void writesPackages() throws Exception {
+        bom.addPackage(new Package(NAMESPACE, NAME, VERSION)
+                .setDeclaredLicense(License.of("MIT"))
+                .addHash("SHA-1", "ABC")
+                .setCopyright(""));
+
+        final var pkg = write().getJSONArray("packages").getJSONObject(0);
+
+        assertThat(pkg.getString("name")).isEqualTo(NAMESPACE + '/' + NAME);
+        assertThat(pkg.getString("SPDXID")).isEqualTo("SPDXRef-1");
+        assertThat(pkg.getString("versionInfo")).isEqualTo(VERSION);
+        assertThat(pkg.getString("downloadLocation")).isEqualTo("NOASSERTION");
+        assertThat(pkg.getString("licenseConcluded")).isEqualTo("NOASSERTION");
+        assertThat(pkg.getString("licenseDeclared")).isEqualTo("MIT");
+        assertThat(pkg.getString("copyrightText")).isEqualTo("NONE");
+        assertThat(pkg.getBoolean("filesAnalyzed")).isFalse();
+        final var checksum = pkg.getJSONArray("checksums").getJSONObject(0);
+        assertThat(checksum.getString("algorithm")).isEqualTo("SHA1");
+        assertThat(checksum.getString("checksumValue")).isEqualTo("abc");
+    }
+
+    @Test
+    void writesRelationships() throws Exception {
+        final var parent = new Package(NAMESPACE, "parent", VERSION);
+        final var child = new Package(NAMESPACE, "child", VERSION);
+        final var tool = new Package(NAMESPACE, "tool", VERSION);
+        bom.addPackage(parent).addPackage(child).addPackage(tool)
+                .addRelation(parent, child, Relation.Type.DEPENDS_ON)
+                .addRelation(parent, tool, Relation.Type.DEVELOPED_USING);
+
+        final var relationships = write().getJSONArray("relationships");
+
+        assertThat(relationships).hasSize(2);
+        final var depends = relationships.getJSONObject(0);
+        assertThat(depends.getString("spdxElementId")).isEqualTo("SPDXRef-1");
+        assertThat(depends.getString("relationshipType")).isEqualTo("DEPENDS_ON");
+        assertThat(depends.getString("relatedSpdxElement")).isEqualTo("SPDXRef-2");
+        final var dev = relationships.getJSONObject(1);
+        assertThat(dev.getString("spdxElementId")).isEqualTo("SPDXRef-3");
+        assertThat(dev.getString("relationshipType")).isEqualTo("DEV_DEPENDENCY_OF");
+        assertThat(dev.getString("relatedSpdxElement")).isEqualTo("SPDXRef-1");
+    }
+}
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -94,4 +95,19 @@ class TagValueDocumentTest {
     void escapesMultiLineEndTag() throws Exception {
         assertOutput(String.format(MULTI_LINE_TEMPLATE, TAG, "</text> \nX"), (doc) -> doc.addValue(TAG, "</text>\nX"));
     }
+
+    @Test
+    void escapesRepeatedMultiLineEndTags() throws Exception {
+        assertOutput(String.format(MULTI_LINE_TEMPLATE, TAG, "A</text> B</text> "), (doc) -> doc.addValue(TAG, "A</text>B</text>"));
+    }
+
+    @Test
+    void writesUtf8Values() throws Exception {
+        final var stream = new ByteArrayOutputStream();
+        try (final var doc = new TagValueDocument(stream)) {
+            doc.addValue(TAG, "Caf\u00e9 \u2713");
+        }
+
+        assertThat(stream.toString(StandardCharsets.UTF_8)).isEqualTo(String.format(TEMPLATE, TAG, "Caf\u00e9 \u2713"));
+    }
 }
@@ -35,6 +35,17 @@ class TreeFormatsTest {
         assertThat(Mockito.mockingDetails(parser).getInvocations().size()).isGreaterThan(0);
     }
 
+    @Test
+    void compilesFormatOnlyOnce() {
+        final var first = new TreeParser(new BillOfMaterials());
+        final var second = new TreeParser(new BillOfMaterials());
+
+        format.configure(first, "maven");
+        format.configure(second, "maven");
+
+        assertThat(first.getFormat()).isSameAs(second.getFormat());
+    }
+
     @Test
     void throws_unknownFormat() {
         //noinspection ConstantConditions
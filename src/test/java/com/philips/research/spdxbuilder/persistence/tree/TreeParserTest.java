@@ -269,6 +269,20 @@ class TreeParserTest {
                     .contains(new Relation(pkg1, pkg3, Relation.Type.DYNAMICALLY_LINKS));
         }
 
+        @Test
+        void tracksDeeplyNestedDependencies() {
+            for (var i = 0; i < 50; i++) {
+                parser.parse("-".repeat(i) + "namespace:name:" + i);
+            }
+            parser.parse("-" + PACKAGE1 + "0");
+
+            assertThat(bom.getRelations()).hasSize(50);
+            final var root = bom.getPackages().get(0);
+            assertThat(bom.getRelationsFrom(bom.getPackages().get(48)))
+                    .containsExactly(new Relation(bom.getPackages().get(48), bom.getPackages().get(49), Relation.Type.DYNAMICALLY_LINKS));
+            assertThat(bom.getRelationsFrom(root)).hasSize(2);
+        }
+
         @Test
         void derivesRelationship() {
             parser.withRelationships(Map.of("", Relation.Type.STATICALLY_LINKS.name(), "Dep", Relation.Type.DEPENDS_ON.name()))
@@ -359,5 +373,18 @@ class TreeParserTest {
             assertThat(parser.parse("### Format")).contains("Format");
             assertThat(parser.parse("######## Format #####")).contains("Format");
         }
+
+        @Test
+        void leavesSharedFormatUnmodified() {
+            final var shared = parser.getFormat();
+            final var other = new TreeParser(new BillOfMaterials()).use(shared);
+
+            other.withTypes(Map.of("", "other"));
+            parser.parse(PACKAGE1);
+
+            assertThat(parser.getFormat()).isSameAs(shared);
+            assertThat(other.getFormat()).isNotSameAs(shared);
+            assertThat(bom.getPackages().get(0).getPurl().get().getType()).isEqualTo(TYPE);
+        }
     }
 }
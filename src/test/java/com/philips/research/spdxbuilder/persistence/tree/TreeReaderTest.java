@@ -11,10 +11,13 @@ import com.philips.research.spdxbuilder.core.domain.Relation;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 
@@ -58,6 +61,50 @@ class TreeReaderTest {
                 new Relation(pkg1, pkg2, Relation.Type.DYNAMICALLY_LINKS));
     }
 
+    @Test
+    void mergesTreesFromMultipleFiles(@TempDir Path dir) throws Exception {
+        final var first = Files.writeString(dir.resolve("first.txt"), "ns/first@1\n  ns/shared@3\n").toFile();
+        final var second = Files.writeString(dir.resolve("second.txt"), "ns/second@2\n  ns/shared@3\n").toFile();
+
+        new TreeReader(List.of(first, second), "npm", null, List.of()).read(bom);
+
+        assertThat(bom.getPackages()).containsExactly(
+                new Package("ns", "first", "1"),
+                new Package("ns", "shared", "3"),
+                new Package("ns", "second", "2"));
+        final var shared = bom.getPackages().get(1);
+        assertThat(bom.getRelations()).containsExactlyInAnyOrder(
+                new Relation(bom.getPackages().get(0), shared, Relation.Type.DYNAMICALLY_LINKS),
+                new Relation(bom.getPackages().get(2), shared, Relation.Type.DYNAMICALLY_LINKS));
+        assertThat(bom.getRelationsTo(shared)).hasSize(2);
+    }
+
+    @Test
+    void readsRelevantSectionFromFile(@TempDir Path dir) throws Exception {
+        final var file = Files.write(dir.resolve("tree.txt"), String.join("\r\n",
+                "ignored line with \u00e9",
+                "runtimeClasspath - Runtime classpath of source set 'main'.",
+                "+--- com.group:caf\u00e9:1.2",
+                "\\--- com.group:other:2.3",
+                "",
+                "group:ignored:666").getBytes(StandardCharsets.UTF_8)).toFile();
+
+        new TreeReader(List.of(file), "gradle", null, List.of()).read(bom);
+
+        assertThat(bom.getPackages()).containsExactly(
+                new Package("com.group", "caf\u00e9", "1.2"),
+                new Package("com.group", "other", "2.3"));
+    }
+
+    @Test
+    void throws_missingTreeFile(@TempDir Path dir) {
+        final var reader = new TreeReader(List.of(dir.resolve("missing").toFile(), dir.resolve("other").toFile()), "npm", null, List.of());
+
+        assertThatThrownBy(() -> reader.read(bom))
+                .isInstanceOf(TreeException.class)
+                .hasMessageContaining("tree file");
+    }
+
     @Test
     void throws_streamFailure() throws Exception {
         final var stream = mock(InputStream.class);